@@ -0,0 +1,55 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.brigadier;
+
+import com.mojang.brigadier.arguments.ArgumentType;
+import de.bluecolored.bluecommands.parsers.ArgumentParser;
+
+/**
+ * An {@link ArgumentParser} that declares the brigadier {@link ArgumentType} it corresponds to.<br>
+ * The {@link BrigadierBridge} then creates a node with this type (instead of a greedy string), so clients can parse
+ * and validate the argument themselves and the nodes following the argument are created as usual.
+ */
+public interface BrigadierArgumentParser<C, T> extends ArgumentParser<C, T> {
+
+    /**
+     * Returns the brigadier-type of this argument.<br>
+     * The type has to read exactly the same part of the input as this parser does, which may span multiple tokens
+     * (e.g. coordinates). Arguments with equal types share the same node.
+     */
+    ArgumentType<?> getArgumentType();
+
+    /**
+     * Returns true if the suggestions for this argument should be requested from the server
+     * (using {@link #suggest(Object, de.bluecolored.bluecommands.InputReader)}),
+     * or false if the client should suggest using the argument-type itself.<br>
+     * Suggestions requested from the server are always for the last word of the input, so for arguments that
+     * span multiple tokens this should usually be false.
+     */
+    default boolean isSuggestingOnServer() {
+        return true;
+    }
+
+}
@@ -31,11 +31,16 @@ import com.mojang.brigadier.tree.CommandNode;
 import de.bluecolored.bluecommands.ArgumentCommand;
 import de.bluecolored.bluecommands.Command;
 import de.bluecolored.bluecommands.LiteralCommand;
+import de.bluecolored.bluecommands.SuggestionCache;
 import de.bluecolored.bluecommands.parsers.NumberArgumentParser;
 import de.bluecolored.bluecommands.parsers.SimpleArgumentParser;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public final class BrigadierBridge {
@@ -58,11 +63,91 @@ public final class BrigadierBridge {
             CommandExecutionHandler<C, T> executionHandler,
             Function<D, C> contextConverter
     ) {
+        return createCommandNodes(command, executionHandler, contextConverter, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates the command-nodes, with the suggestions being collected on the given executor.<br>
+     * All argument-nodes that brigadier asks for suggestions in one completion share the same request
+     * (compared by their source object), a request for a different input from the same source replaces the previous one.
+     */
+    public static <C, D, T> Collection<CommandNode<D>> createCommandNodes(
+            Command<C, T> command,
+            CommandExecutionHandler<C, T> executionHandler,
+            Function<D, C> contextConverter,
+            Executor suggestionExecutor
+    ) {
+        return createCommandNodes(command, executionHandler, contextConverter, suggestionExecutor, d -> d);
+    }
+
+    /**
+     * Creates the command-nodes, with the suggestions being collected on the given executor.<br>
+     * All argument-nodes that brigadier asks for suggestions in one completion share the same request
+     * (compared by the key that the sourceKeyFunction returns), a request for a different input from the same source
+     * replaces the previous one. Replaced requests are completed without any suggestions.
+     */
+    public static <C, D, T> Collection<CommandNode<D>> createCommandNodes(
+            Command<C, T> command,
+            CommandExecutionHandler<C, T> executionHandler,
+            Function<D, C> contextConverter,
+            Executor suggestionExecutor,
+            Function<D, ?> sourceKeyFunction
+    ) {
+        return createCommandNodes(command, executionHandler, contextConverter, suggestionExecutor, sourceKeyFunction, null);
+    }
+
+    /**
+     * Creates the command-nodes, with the suggestions being collected on the given executor.<br>
+     * All argument-nodes that brigadier asks for suggestions in one completion share the same request
+     * (compared by the key that the sourceKeyFunction returns), a request for a different input from the same source
+     * replaces the previous one. Replaced requests are completed without any suggestions.<br>
+     * If a suggestion-cache is given, repeated suggestion-requests are answered from that cache.
+     */
+    public static <C, D, T> Collection<CommandNode<D>> createCommandNodes(
+            Command<C, T> command,
+            CommandExecutionHandler<C, T> executionHandler,
+            Function<D, C> contextConverter,
+            Executor suggestionExecutor,
+            Function<D, ?> sourceKeyFunction,
+            @Nullable SuggestionCache<C> suggestionCache
+    ) {
+        return createCommandNodes(command, executionHandler, contextConverter, suggestionExecutor, sourceKeyFunction, suggestionCache, null);
+    }
+
+    /**
+     * Creates the command-nodes, with the suggestions being collected on the given executor.<br>
+     * All argument-nodes that brigadier asks for suggestions in one completion share the same request
+     * (compared by the key that the sourceKeyFunction returns), a request for a different input from the same source
+     * replaces the previous one. Replaced requests are completed without any suggestions.<br>
+     * If a suggestion-cache is given, repeated suggestion-requests are answered from that cache.<br>
+     * If a visibility-cache is given, the requirements of all nodes are resolved at once per source-key
+     * and answered from that cache.
+     */
+    public static <C, D, T> Collection<CommandNode<D>> createCommandNodes(
+            Command<C, T> command,
+            CommandExecutionHandler<C, T> executionHandler,
+            Function<D, C> contextConverter,
+            Executor suggestionExecutor,
+            Function<D, ?> sourceKeyFunction,
+            @Nullable SuggestionCache<C> suggestionCache,
+            @Nullable VisibilityCache<D> visibilityCache
+    ) {
+        Function<Set<Command<C, T>>, Predicate<D>> requirementFunction;
+        if (visibilityCache != null) {
+            requirementFunction = nodeCommands -> d -> visibilityCache.isVisible(d, command, contextConverter, nodeCommands);
+        } else {
+            requirementFunction = nodeCommands -> d -> command.compile().isAnyValid(contextConverter.apply(d), nodeCommands);
+        }
+
+        // remember which commands each node has been created from, so the execution can follow the same path
+        Map<CommandNode<D>, Set<Command<C, T>>> origins = new IdentityHashMap<>();
         return createCommandNodes(
                 List.of(command),
-                new CommandSuggestionProvider<>(command, contextConverter),
-                new CommandCommand<>(command, executionHandler, contextConverter),
-                contextConverter
+                new CommandSuggestionProvider<>(command, contextConverter, suggestionExecutor, sourceKeyFunction, suggestionCache),
+                new CommandCommand<>(command, executionHandler, contextConverter, origins),
+                requirementFunction,
+                origins,
+                new HashMap<>()
         );
     }
 
@@ -70,31 +155,75 @@ public final class BrigadierBridge {
             Collection<Command<C, T>> commands,
             com.mojang.brigadier.suggestion.SuggestionProvider<D> suggestionProvider,
             com.mojang.brigadier.Command<D> executor,
-            Function<D, C> contextConverter
+            Function<Set<Command<C, T>>, Predicate<D>> requirementFunction,
+            Map<CommandNode<D>, Set<Command<C, T>>> origins,
+            Map<Set<Command<C, T>>, Collection<CommandNode<D>>> createdNodes
     ) {
         Set<Command<C, T>> nodes = new HashSet<>();
         for (var command : commands)
             collectNodes(command, nodes);
 
+        // the children of optional arguments are reachable from multiple levels,
+        // creating their nodes only once and sharing them keeps the tree from growing exponentially
+        Collection<CommandNode<D>> created = createdNodes.get(nodes);
+        if (created != null) return created;
+
         Collection<CommandNode<D>> commandNodes = new ArrayList<>(1);
 
-        // literals
-        for (Command<C, T> node : nodes) {
-            if (!(node instanceof LiteralCommand)) continue;
+        // group literals with the same literal together (brigadier would merge their nodes anyway)
+        Map<String, Set<Command<C, T>>> literals = nodes.stream()
+                .filter(c -> c instanceof LiteralCommand)
+                .collect(Collectors.groupingBy(
+                        c -> ((LiteralCommand<C, T>) c).getLiteral(),
+                        LinkedHashMap::new,
+                        Collectors.toSet()
+                ));
 
-            LiteralArgumentBuilder<D> builder = LiteralArgumentBuilder.literal(((LiteralCommand<C, T>) node).getLiteral());
-            builder.requires(d -> node.isValid(contextConverter.apply(d)));
-            if (node.getExecutable() != null) builder.executes(executor);
-            createCommandNodes(node.getSubCommands(), suggestionProvider, executor, contextConverter).forEach(builder::then);
+        literals.forEach((literal, literalCommands) -> {
 
-            commandNodes.add(builder.build());
-        }
+                    LiteralArgumentBuilder<D> builder = LiteralArgumentBuilder.literal(literal);
+                    builder.requires(requirementFunction.apply(literalCommands));
+
+                    if (literalCommands.stream().map(Command::getExecutable).anyMatch(Objects::nonNull))
+                        builder.executes(executor);
+
+                    Collection<Command<C, T>> subCommands = literalCommands.stream()
+                            .flatMap(c -> c.getSubCommands().stream())
+                            .collect(Collectors.toSet());
+                    createCommandNodes(subCommands, suggestionProvider, executor, requirementFunction, origins, createdNodes).forEach(builder::then);
+
+                    CommandNode<D> commandNode = builder.build();
+                    origins.put(commandNode, literalCommands);
+                    commandNodes.add(commandNode);
+
+                });
+
+        List<ArgumentGroup<C, T>> argumentGroups = new ArrayList<>();
+
+        // group arguments that declare their own brigadier-type by that type
+        Map<ArgumentType<?>, Set<ArgumentCommand<C, T>>> declaredTypeArguments = nodes.stream()
+                .filter(c -> c instanceof ArgumentCommand)
+                .map(c -> (ArgumentCommand<C, T>) c)
+                .filter(c -> c.getArgumentParser() instanceof BrigadierArgumentParser)
+                .collect(Collectors.groupingBy(
+                        c -> ((BrigadierArgumentParser<C, ?>) c.getArgumentParser()).getArgumentType(),
+                        LinkedHashMap::new,
+                        Collectors.toSet()
+                ));
 
-        // group arguments by brigadier-type
+        declaredTypeArguments.forEach((type, arguments) -> argumentGroups.add(new ArgumentGroup<>(
+                type,
+                arguments,
+                false,
+                arguments.stream().anyMatch(c -> ((BrigadierArgumentParser<C, ?>) c.getArgumentParser()).isSuggestingOnServer())
+        )));
+
+        // group the other arguments by brigadier-type
         // using an enum-map here sorts the arguments by their type as well (enum-ordinal) -> this is important
         EnumMap<CommonNodeType, Set<ArgumentCommand<C, T>>> typedArguments = nodes.stream()
                 .filter(c -> c instanceof ArgumentCommand)
                 .map(c -> (ArgumentCommand<C, T>) c)
+                .filter(c -> !(c.getArgumentParser() instanceof BrigadierArgumentParser))
                 .collect(Collectors.groupingBy(
                         CommonNodeType::getFor,
                         () -> new EnumMap<>(CommonNodeType.class),
@@ -107,36 +236,49 @@ public final class BrigadierBridge {
         if (typedArguments.containsKey(CommonNodeType.STRING) && typedArguments.containsKey(CommonNodeType.GREEDY))
             typedArguments.get(CommonNodeType.GREEDY).addAll(typedArguments.remove(CommonNodeType.STRING));
 
-        typedArguments.forEach((type, arguments) -> {
+        // only allow suggestions for string-types
+        typedArguments.forEach((type, arguments) -> argumentGroups.add(new ArgumentGroup<>(
+                type.getArgumentType(),
+                arguments,
+                type == CommonNodeType.GREEDY,
+                type == CommonNodeType.GREEDY || type == CommonNodeType.STRING || type == CommonNodeType.WORD
+        )));
 
-                    RequiredArgumentBuilder<D, ?> builder = RequiredArgumentBuilder.argument(
-                            getCommonArgumentId(type, arguments),
-                            type.getArgumentType()
-                    );
+        // brigadier merges children with the same name into the already added node, which would also modify that node
+        // everywhere it is shared -> argument-nodes get a unique name instead, so the created nodes never need merging
+        Set<String> nodeNames = new HashSet<>(literals.keySet());
 
-                    // only allow suggestions for string-types
-                    if (type == CommonNodeType.GREEDY || type == CommonNodeType.STRING || type == CommonNodeType.WORD)
-                        builder.suggests(suggestionProvider);
+        for (ArgumentGroup<C, T> group : argumentGroups) {
+            Set<ArgumentCommand<C, T>> arguments = group.arguments;
 
-                    builder.requires(d -> {
-                        C context = contextConverter.apply(d);
-                        return arguments.stream().anyMatch(arg -> arg.isValid(context));
-                    });
+            String argumentId = getCommonArgumentId(group.greedy, arguments);
+            while (!nodeNames.add(argumentId))
+                argumentId = createRandomArgumentId();
 
-                    if (arguments.stream().map(Command::getExecutable).anyMatch(Objects::nonNull))
-                        builder.executes(executor);
+            RequiredArgumentBuilder<D, ?> builder = RequiredArgumentBuilder.argument(argumentId, group.type);
 
-                    if (type != CommonNodeType.GREEDY) {
-                        Collection<Command<C, T>> subCommands = arguments.stream()
-                                .flatMap(c -> c.getSubCommands().stream())
-                                .collect(Collectors.toSet());
-                        createCommandNodes(subCommands, suggestionProvider, executor, contextConverter).forEach(builder::then);
-                    }
+            if (group.suggesting)
+                builder.suggests(suggestionProvider);
 
-                    commandNodes.add(builder.build());
+            Set<Command<C, T>> argumentCommands = new HashSet<>(arguments);
+            builder.requires(requirementFunction.apply(argumentCommands));
 
-                });
+            if (arguments.stream().map(Command::getExecutable).anyMatch(Objects::nonNull))
+                builder.executes(executor);
+
+            if (!group.greedy) {
+                Collection<Command<C, T>> subCommands = arguments.stream()
+                        .flatMap(c -> c.getSubCommands().stream())
+                        .collect(Collectors.toSet());
+                createCommandNodes(subCommands, suggestionProvider, executor, requirementFunction, origins, createdNodes).forEach(builder::then);
+            }
+
+            CommandNode<D> commandNode = builder.build();
+            origins.put(commandNode, argumentCommands);
+            commandNodes.add(commandNode);
+        }
 
+        createdNodes.put(nodes, commandNodes);
         return commandNodes;
     }
 
@@ -162,20 +304,40 @@ public final class BrigadierBridge {
 
     }
 
-    private static <C, T> String getCommonArgumentId(CommonNodeType type, Collection<ArgumentCommand<C, T>> arguments) {
+    private static <C, T> String getCommonArgumentId(boolean greedy, Collection<ArgumentCommand<C, T>> arguments) {
         String commonNodeName;
         if (arguments.size() <= 3) {
-            commonNodeName = type == CommonNodeType.GREEDY ? "..." : arguments.stream()
+            commonNodeName = greedy ? "..." : arguments.stream()
                     .map(ArgumentCommand::getArgumentId)
                     .distinct()
                     .sorted()
                     .collect(Collectors.joining("|"));
         } else {
-            commonNodeName = "arg-" + UUID.randomUUID().toString().substring(0, 8);
+            commonNodeName = createRandomArgumentId();
         }
         return commonNodeName;
     }
 
+    private static String createRandomArgumentId() {
+        return "arg-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static final class ArgumentGroup<C, T> {
+
+        private final ArgumentType<?> type;
+        private final Set<ArgumentCommand<C, T>> arguments;
+        private final boolean greedy;
+        private final boolean suggesting;
+
+        private ArgumentGroup(ArgumentType<?> type, Set<ArgumentCommand<C, T>> arguments, boolean greedy, boolean suggesting) {
+            this.type = type;
+            this.arguments = arguments;
+            this.greedy = greedy;
+            this.suggesting = suggesting;
+        }
+
+    }
+
     private enum CommonNodeType {
 
         INTEGER (LongArgumentType.longArg()),
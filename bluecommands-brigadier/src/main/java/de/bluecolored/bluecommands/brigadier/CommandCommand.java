@@ -25,13 +25,20 @@
 package de.bluecolored.bluecommands.brigadier;
 
 import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.context.ParsedCommandNode;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.tree.CommandNode;
+import com.mojang.brigadier.tree.LiteralCommandNode;
 import de.bluecolored.bluecommands.Command;
 import de.bluecolored.bluecommands.InputReader;
-import de.bluecolored.bluecommands.ParseMatch;
+import de.bluecolored.bluecommands.LiteralCommand;
 import de.bluecolored.bluecommands.ParseResult;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 class CommandCommand<C, D, T> implements com.mojang.brigadier.Command<D> {
@@ -39,18 +46,44 @@ class CommandCommand<C, D, T> implements com.mojang.brigadier.Command<D> {
     private final Command<C, T> command;
     private final CommandExecutionHandler<C, T> executionHandler;
     private final Function<D, C> contextConverter;
+    private final Map<CommandNode<D>, Set<Command<C, T>>> origins;
 
-    public CommandCommand(Command<C,T> command, CommandExecutionHandler<C,T> executionHandler, Function<D, C> contextConverter) {
+    public CommandCommand(
+            Command<C,T> command,
+            CommandExecutionHandler<C,T> executionHandler,
+            Function<D, C> contextConverter,
+            Map<CommandNode<D>, Set<Command<C, T>>> origins
+    ) {
         this.command = command;
         this.executionHandler = executionHandler;
         this.contextConverter = contextConverter;
+        this.origins = origins;
     }
 
     @Override
     public int run(CommandContext<D> context) throws CommandSyntaxException {
         InputReader inputReader = new InputReader(context.getInput());
         inputReader.setPosition(context.getRange().getStart());
-        ParseResult<C, T> result = command.parse(contextConverter.apply(context.getSource()), inputReader);
+
+        // brigadier already resolved the node-path: parsing starts behind the leading literals of that path,
+        // and for the rest we only need to parse the commands these nodes were created from
+        List<LiteralCommand<C, T>> literalPath = new ArrayList<>();
+        Map<Integer, Set<Command<C, T>>> path = new HashMap<>();
+        boolean leadingLiteral = command.getClass() == Command.class;
+        for (ParsedCommandNode<D> parsedNode : context.getNodes()) {
+            Set<Command<C, T>> nodeOrigins = origins.get(parsedNode.getNode());
+            if (nodeOrigins == null) continue;
+            path.put(parsedNode.getRange().getStart(), nodeOrigins);
+
+            // only literals that have been created from a single command can be followed directly
+            leadingLiteral = leadingLiteral && nodeOrigins.size() == 1 && parsedNode.getNode() instanceof LiteralCommandNode;
+            if (leadingLiteral) literalPath.add((LiteralCommand<C, T>) nodeOrigins.iterator().next());
+        }
+
+        ParseResult<C, T> result = command.parseBest(contextConverter.apply(context.getSource()), inputReader, literalPath, (subCommand, position) -> {
+            Set<Command<C, T>> nodeOrigins = path.get(position);
+            return nodeOrigins == null || nodeOrigins.contains(subCommand);
+        });
         return executionHandler.handle(result);
     }
 
@@ -29,41 +29,61 @@ import com.mojang.brigadier.suggestion.SuggestionProvider;
 import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import de.bluecolored.bluecommands.*;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 
 class CommandSuggestionProvider<D> implements SuggestionProvider<D> {
 
-    private final ParseFunction<D> command;
+    private final SuggestFunction<D> command;
+    private final Executor executor;
+    private final Function<D, ?> sourceKeyFunction;
 
-    public <C> CommandSuggestionProvider(Command<C, ?> command, Function<D, C> conversion) {
-        this.command = (context, input) -> command.parse(conversion.apply(context), input);
+    // the currently running request for each source, so it can be shared by all argument-nodes of one completion
+    // and replaced once the source requests suggestions for a different input
+    private final Map<Object, SuggestionRequest> runningRequests = new ConcurrentHashMap<>();
+
+    public <C> CommandSuggestionProvider(
+            Command<C, ?> command,
+            Function<D, C> conversion,
+            Executor executor,
+            Function<D, ?> sourceKeyFunction,
+            @Nullable SuggestionCache<C> cache
+    ) {
+        if (cache != null) {
+            this.command = (context, input, cursor, cancellation) ->
+                    cache.suggestAsync(command, conversion.apply(context), input, cursor, cancellation);
+        } else {
+            this.command = (context, input, cursor, cancellation) ->
+                    command.suggestAsync(conversion.apply(context), input, cursor, Integer.MAX_VALUE, cancellation);
+        }
+        this.executor = executor;
+        this.sourceKeyFunction = sourceKeyFunction;
     }
 
     @Override
     public CompletableFuture<Suggestions> getSuggestions(CommandContext<D> context, SuggestionsBuilder suggestionsBuilder) {
-        return CompletableFuture.supplyAsync(() -> {
-            InputReader inputReader = new InputReader(context.getInput());
-            inputReader.setPosition(context.getRange().getStart());
-            ParseResult<?, ?> result = command.parse(context.getSource(), inputReader);
-
-            // only get suggestions for last word
-            int start = suggestionsBuilder.getInput().lastIndexOf(' ') + 1;
-            SuggestionsBuilder builder = suggestionsBuilder.createOffset(start);
-
-            Map<String, Suggestion> suggestionMap = new HashMap<>();
-            for (ParseFailure<?, ?> failure : result.getFailures()) {
-                if (failure.getPosition() != builder.getStart()) continue;
-                for (var suggestion : failure.getSuggestions()) {
-                    suggestionMap.put(suggestion.getString(), suggestion);
-                }
-            }
+        D source = context.getSource();
+
+        // the builder-input is the input up to the cursor
+        String input = suggestionsBuilder.getInput();
+        int start = Math.min(context.getRange().getStart(), input.length());
+
+        return requestSuggestions(source, input, start).thenApply(suggestions -> {
+
+            // suggestions are always for the last word
+            int wordStart = input.lastIndexOf(' ') + 1;
+            SuggestionsBuilder builder = suggestionsBuilder.createOffset(wordStart);
 
-            for (var suggestion : suggestionMap.values()) {
+            for (var suggestion : suggestions) {
                 if (suggestion instanceof TooltipSuggestion) {
                     builder.suggest(suggestion.getString(), ((TooltipSuggestion) suggestion).getTooltip());
                 } else {
@@ -75,8 +95,91 @@ class CommandSuggestionProvider<D> implements SuggestionProvider<D> {
         });
     }
 
-    interface ParseFunction<C> {
-        ParseResult<?, ?> parse(C context, InputReader input);
+    /**
+     * Returns the suggestions for the input, starting to parse at the given start.<br>
+     * Brigadier asks all sibling argument-nodes for suggestions, they all share the same request.
+     * A request for a different input from the same source replaces the running one.
+     */
+    CompletableFuture<List<Suggestion>> requestSuggestions(D source, String input, int start) {
+        Object sourceKey = sourceKeyFunction.apply(source);
+        SuggestionRequest request;
+        if (sourceKey != null) {
+            List<SuggestionRequest> displaced = new ArrayList<>(1);
+            request = runningRequests.compute(sourceKey, (key, running) -> {
+                if (running != null && running.isFor(input, start)) return running;
+                if (running != null) displaced.add(running);
+                return new SuggestionRequest(input, start);
+            });
+
+            // completing the displaced request runs its callbacks (which remove it from the map again),
+            // so this can only happen after the map-entry has been released
+            for (SuggestionRequest running : displaced)
+                running.replace();
+        } else {
+            request = new SuggestionRequest(input, start);
+        }
+
+        if (request.start(source, executor)) {
+            request.suggestions.whenComplete((suggestions, throwable) -> {
+                if (sourceKey != null) runningRequests.remove(sourceKey, request);
+            });
+        }
+
+        return request.suggestions;
+    }
+
+    interface SuggestFunction<C> {
+        CompletableFuture<List<Suggestion>> suggest(C context, InputReader input, int cursor, BooleanSupplier cancellation);
+    }
+
+    private class SuggestionRequest {
+
+        private final String input;
+        private final int start;
+        private final CompletableFuture<List<Suggestion>> suggestions = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean(false);
+        private volatile boolean replaced = false;
+
+        private SuggestionRequest(String input, int start) {
+            this.input = input;
+            this.start = start;
+        }
+
+        private boolean isFor(String input, int start) {
+            return !replaced && this.start == start && this.input.equals(input);
+        }
+
+        /**
+         * Starts collecting the suggestions, returns false if the request has already been started.
+         */
+        private boolean start(D source, Executor executor) {
+            if (!started.compareAndSet(false, true)) return false;
+
+            CompletableFuture
+                    .supplyAsync(() -> {
+                        if (replaced) return CompletableFuture.completedFuture(List.<Suggestion>of());
+
+                        InputReader inputReader = new InputReader(input);
+                        inputReader.setPosition(start);
+                        return command.suggest(source, inputReader, input.length(), () -> replaced);
+                    }, executor)
+                    .thenCompose(suggestions -> suggestions)
+                    .whenComplete((suggestions, throwable) -> {
+                        if (throwable != null) this.suggestions.completeExceptionally(throwable);
+                        else this.suggestions.complete(suggestions);
+                    });
+
+            return true;
+        }
+
+        /**
+         * Aborts the parsing (if it is still running) and completes the request without any suggestions.
+         */
+        private void replace() {
+            replaced = true;
+            suggestions.complete(List.of());
+        }
+
     }
 
 }
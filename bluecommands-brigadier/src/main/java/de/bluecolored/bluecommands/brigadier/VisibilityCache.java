@@ -0,0 +1,99 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.brigadier;
+
+import de.bluecolored.bluecommands.Command;
+import de.bluecolored.bluecommands.CompiledCommandTree;
+import de.bluecolored.bluecommands.ExpiringCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A bounded cache for the visibility of the created command-nodes, keyed by a key of the command-source.<br>
+ * Instead of testing each node on its own, the visibility of the whole command-tree is resolved at once
+ * for the first node that is tested and then reused for all other nodes, e.g. while the command-tree is sent to
+ * a player. All sources with an equal key (e.g. players with the same permission-group) share the same result.<br>
+ * Entries expire after a fixed time and the least recently used entries are evicted once the cache is full.
+ * Entries of a command-tree that has been modified afterwards are never used.
+ * @see ExpiringCache
+ */
+public class VisibilityCache<D> {
+
+    private final Function<D, ?> sourceKeyFunction;
+    // keyed by the compiled tree and the source-key, compiled trees don't implement equals so a modified
+    // (and therefore recompiled) command-tree never uses old entries
+    private final ExpiringCache<List<Object>, Set<?>> entries;
+
+    /**
+     * @param sourceKeyFunction returns the key of a command-source, all sources with an equal key share their
+     *                          visibility. Returning <code>null</code> disables caching for that source.
+     * @param maximumSize the maximum number of cached visibility-results
+     * @param expireAfter the time after which a cached visibility-result is discarded
+     */
+    public VisibilityCache(Function<D, ?> sourceKeyFunction, int maximumSize, Duration expireAfter) {
+        this.sourceKeyFunction = sourceKeyFunction;
+        this.entries = new ExpiringCache<>(maximumSize, expireAfter);
+    }
+
+    /**
+     * Returns true if any of the given commands is valid for the context of the given source.
+     */
+    <C, T> boolean isVisible(D source, Command<C, T> command, Function<D, C> contextConverter, Set<Command<C, T>> nodeCommands) {
+        Object sourceKey = sourceKeyFunction.apply(source);
+        CompiledCommandTree<C, T> tree = command.compile();
+        if (sourceKey == null) return tree.isAnyValid(contextConverter.apply(source), nodeCommands);
+
+        List<Object> key = List.of(tree, sourceKey);
+
+        Set<?> validCommands = entries.get(key);
+        if (validCommands == null) {
+            validCommands = tree.getValidCommands(contextConverter.apply(source));
+            entries.put(key, validCommands);
+        }
+
+        for (Command<C, T> nodeCommand : nodeCommands) {
+            if (validCommands.contains(nodeCommand)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the cached visibility of sources with the given key.
+     */
+    public void invalidate(Object sourceKey) {
+        entries.removeIf(key -> key.get(1).equals(sourceKey));
+    }
+
+    /**
+     * Removes all cached visibility-results.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+}
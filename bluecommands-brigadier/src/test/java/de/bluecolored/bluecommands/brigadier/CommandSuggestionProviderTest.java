@@ -0,0 +1,69 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.brigadier;
+
+import de.bluecolored.bluecommands.Command;
+import de.bluecolored.bluecommands.LiteralCommand;
+import de.bluecolored.bluecommands.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandSuggestionProviderTest {
+
+    @Test
+    public void testSameSourceReplacesRequest() {
+        Command<Object, Object> root = new Command<>();
+        LiteralCommand<Object, Object> test = new LiteralCommand<>("test");
+        for (String literal : List.of("alpha", "beta")) {
+            LiteralCommand<Object, Object> command = new LiteralCommand<>(literal);
+            command.setExecutable((context, arguments) -> literal);
+            test.addSubCommand(command);
+        }
+        root.addSubCommand(test);
+
+        // the requests only run once the tasks are run manually
+        List<Runnable> tasks = new ArrayList<>();
+        CommandSuggestionProvider<Object> provider = new CommandSuggestionProvider<>(root, source -> source, tasks::add, source -> source, null);
+
+        CompletableFuture<List<Suggestion>> first = provider.requestSuggestions("source", "test a", 0);
+        assertSame(first, provider.requestSuggestions("source", "test a", 0), "sibling-nodes share the request");
+        assertNotSame(first, provider.requestSuggestions("other", "test a", 0), "other sources don't share the request");
+
+        CompletableFuture<List<Suggestion>> second = provider.requestSuggestions("source", "test b", 0);
+        assertTrue(first.isDone(), "the replaced request is completed");
+        assertEquals(List.of(), first.join());
+        assertSame(second, provider.requestSuggestions("source", "test b", 0), "the replacing request is still running");
+
+        tasks.forEach(Runnable::run);
+        assertEquals(List.of("beta"), second.join().stream().map(Suggestion::getString).collect(Collectors.toList()));
+    }
+
+}
@@ -53,65 +53,6 @@ public class ArgumentCommand<C, T> extends Command<C, T> {
         return optional;
     }
 
-    @Override
-    void parse(ParseData<C, T> data) {
-        C context = data.getContext();
-        if (!isValid(context)) return;
-
-        InputReader input = data.getInput();
-        int position = input.getPosition();
-
-        int matchCount = data.getResult().getMatches().size();
-
-        try {
-            Object argument = argumentParser.parse(context, input);
-
-            // sanity check position
-            if (input.getPosition() < position) {
-                throw new CommandSetupException("The ArgumentParser '" + argumentParser + "' altered the InputReader in an illegal way. (position changed backwards)");
-            }
-
-            // check if full token was consumed
-            int next = input.peek();
-            if (next != -1 && next != ' ') {
-                throw new CommandSetupException("The ArgumentParser '" + argumentParser + "' did not consume the full token. (expected next char to be a space or end of string)");
-            }
-
-            // if we reached the end of input, check if there is any additional suggestions and add an extra failure if there are any
-            if (next == -1) {
-                input.setPosition(position); // reset position for suggestions
-                List<Suggestion> extraSuggesions = argumentParser.suggest(context, input);
-                if (!extraSuggesions.isEmpty()) {
-                    data.getResult().addFailure(new ParseFailure<>(
-                            position,
-                            "Alternative Usages",
-                            data.getCommandStack(),
-                            extraSuggesions
-                    ));
-                }
-                input.readRemaining(); // reset position
-            }
-
-            data.getCurrentSegment().setValue(argument);
-            super.parse(data);
-        } catch (CommandParseException ex) {
-            input.setPosition(position); // reset position for suggestions
-            data.getResult().addFailure(new ParseFailure<>(
-                position,
-                ex.getMessage(),
-                data.getCommandStack(),
-                argumentParser.suggest(context, input)
-            ));
-        }
-
-        // skip argument if the argument is optional and no match has been added
-        if (optional && matchCount == data.getResult().getMatches().size()) {
-            data.getCurrentSegment().setValue(null);
-            input.setPosition(Math.max(0, position - 1));
-            super.parse(data);
-        }
-    }
-
     @Override
     public boolean isEqual(Command<C, T> other) {
         if (getClass() != other.getClass()) return false;
@@ -123,4 +64,9 @@ public class ArgumentCommand<C, T> extends Command<C, T> {
                 ac.argumentParser.equals(argumentParser);
     }
 
+    @Override
+    public Object getMergeKey() {
+        return List.of(getClass(), argumentId, argumentParser, optional);
+    }
+
 }
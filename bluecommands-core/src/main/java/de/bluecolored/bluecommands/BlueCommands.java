@@ -28,28 +28,65 @@ import de.bluecolored.bluecommands.annotations.*;
 import de.bluecolored.bluecommands.parsers.*;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 
 public class BlueCommands<C> {
     private static final java.util.regex.Pattern ARGUMENT_PATTERN = java.util.regex.Pattern.compile("^<(.*)>$");
     private static final java.util.regex.Pattern OPTIONAL_ARGUMENT_PATTERN = java.util.regex.Pattern.compile("^\\[(.*)]$");
 
+    private static final System.Logger LOGGER = System.getLogger(BlueCommands.class.getName());
+
+    // the key of the validation-result of checkContext(C), which doesn't test for any method
+    private static final Object NO_METHOD = new Object();
+
+    // returned (and compared by identity) instead of the validation-results of a context that is not cached
+    private static final Map<Object, Boolean> NO_RESULTS = Collections.unmodifiableMap(new HashMap<>());
+
+    // the generated command-factory for each holder-class (if there is one)
+    private static final ClassValue<Optional<CommandFactory>> COMMAND_FACTORIES = new ClassValue<>() {
+        @Override
+        protected Optional<CommandFactory> computeValue(Class<?> holderClass) {
+            return findCommandFactory(holderClass);
+        }
+    };
+
+    // all command-factories that are registered as a service for a class-loader, by their holder-class
+    // (softly referenced, the factories would otherwise keep their class-loader from being unloaded)
+    private static final Map<ClassLoader, SoftReference<Map<Class<?>, CommandFactory>>> LOADED_COMMAND_FACTORIES = new WeakHashMap<>();
+
     private final Map<String, ArgumentParser<C, ?>> argumentParsersById;
     private final Map<Class<? extends ArgumentParser<C, ?>>, ArgumentParser<C, ?>> argumentParsersByType;
     private final Map<Class<?>, ArgumentParser<C, ?>> argumentParsersByArgumentType;
     private final Map<Class<?>, Function<C, ?>> contextResolvers;
     private final Map<Class<? extends Annotation>, BiPredicate<? extends Annotation, C>> annotationContextPredicate;
 
+    private final Map<Class<?>, CommandHolderModel<C>> holderModels;
+    private final Map<ArgumentParser<C, ?>, String> snapshotParserKeys;
+    private volatile @Nullable ValidationCache<C> validationCache;
+
     public BlueCommands() {
         this.argumentParsersById = new ConcurrentHashMap<>();
         this.argumentParsersByType = new ConcurrentHashMap<>();
@@ -57,6 +94,10 @@ public class BlueCommands<C> {
         this.contextResolvers = new ConcurrentHashMap<>();
         this.annotationContextPredicate = new ConcurrentHashMap<>();
 
+        this.holderModels = new ConcurrentHashMap<>();
+        this.snapshotParserKeys = Collections.synchronizedMap(new IdentityHashMap<>());
+        this.validationCache = null;
+
         setArgumentParserForArgumentType(String.class, StringArgumentParser.string());
         setArgumentParserForArgumentType(byte.class, NumberArgumentParser.forBytes());
         setArgumentParserForArgumentType(Byte.class, NumberArgumentParser.forBytes());
@@ -75,49 +116,332 @@ public class BlueCommands<C> {
     }
 
     public Command<C, Object> createCommand(Object holder) {
-        Command<C, Object> root = new Command<>();
         Class<?> holderClass = holder.getClass();
 
+        // use the generated factory if the holder has been processed by the bluecommands-processor
+        Optional<CommandFactory> commandFactory = COMMAND_FACTORIES.get(holderClass);
+        if (commandFactory.isPresent()) return commandFactory.get().createCommand(this, holder);
+
+        return getHolderModel(holderClass).createCommand(holder, this);
+    }
+
+    /**
+     * Creates a single command containing the commands of all given holders (see {@link #createCommand(Object)}).
+     */
+    public Command<C, Object> createCommands(Collection<?> holders) {
+        Command<C, Object> root = new Command<>();
+        for (Object holder : holders) {
+            root.addSubCommand(createCommand(holder));
+        }
+        return root;
+    }
+
+    /**
+     * Same as {@link #createCommands(Collection)}, but the commands of the holders are created in parallel on the given pool.<br>
+     * The created commands are merged in the order of the holders on the calling thread,
+     * so the result is the same as if they were created one after another.
+     */
+    public Command<C, Object> createCommands(Collection<?> holders, ForkJoinPool pool) {
+        List<ForkJoinTask<Command<C, Object>>> tasks = new ArrayList<>(holders.size());
+        for (Object holder : holders) {
+            tasks.add(pool.submit(() -> createCommand(holder)));
+        }
+
+        Command<C, Object> root = new Command<>();
+        for (ForkJoinTask<Command<C, Object>> task : tasks) {
+            root.addSubCommand(task.join());
+        }
+        return root;
+    }
+
+    /**
+     * Same as {@link #createCommands(Collection)}, but reads the command-tree from the snapshot-file if the file has been
+     * written for the same holder-classes (see {@link #getHolderHash(Collection)}) and in the same order.
+     * Otherwise, the command-tree is created from the holders and written into the snapshot-file.<br>
+     * The argument-parsers and executables of a snapshot are resolved using the currently registered parsers and the
+     * given holders.<br>
+     * The snapshot is only an optimization, the commands are always created: If the snapshot-file can not be read or
+     * written (e.g. the directory is read-only), or if the tree can not be stored in a snapshot (e.g. holders with a
+     * generated command-factory), the problem is logged as a warning and the tree is returned without a snapshot.
+     * @see #createCommands(List, Path, Consumer)
+     */
+    public Command<C, Object> createCommands(List<?> holders, Path snapshotFile) {
+        return createCommands(holders, snapshotFile, ex -> LOGGER.log(
+                System.Logger.Level.WARNING,
+                "Failed to use the command-snapshot: " + snapshotFile,
+                ex
+        ));
+    }
+
+    /**
+     * Same as {@link #createCommands(List, Path)}, but all problems with the snapshot-file are passed to the
+     * snapshotErrorHandler instead of being logged.
+     * An {@link IllegalArgumentException} is passed if the tree can not be stored in a snapshot.
+     */
+    public Command<C, Object> createCommands(List<?> holders, Path snapshotFile, Consumer<? super Exception> snapshotErrorHandler) {
+        long hash = getHolderHash(holders);
+
+        // the method-models are only created once an executable of the snapshot is first used
+        Map<String, MethodCommandExecutable.MethodModel<C>> methodModels = new ConcurrentHashMap<>();
+        try {
+            Command<C, Object> snapshot = CommandSnapshot.read(
+                    snapshotFile,
+                    hash,
+                    key -> resolveSnapshotParser(key, holders),
+                    key -> resolveSnapshotExecutable(key, holders, methodModels)
+            );
+            if (snapshot != null) return snapshot;
+        } catch (IOException ex) {
+            snapshotErrorHandler.accept(ex);
+        }
+
+        Command<C, Object> command = createCommands(holders);
+
+        Map<Object, Integer> holderIndexes = new IdentityHashMap<>();
+        for (int i = 0; i < holders.size(); i++) holderIndexes.putIfAbsent(holders.get(i), i);
+
+        try {
+            CommandSnapshot.write(
+                    command,
+                    snapshotFile,
+                    hash,
+                    snapshotParserKeys::get,
+                    executable -> getSnapshotExecutableKey(executable, holderIndexes)
+            );
+        } catch (IOException | IllegalArgumentException ex) {
+            snapshotErrorHandler.accept(ex);
+        }
+
+        return command;
+    }
+
+    /**
+     * Returns a hash of the classes of the given holders (in order), that changes whenever any of the classes changes.
+     */
+    public static long getHolderHash(Collection<?> holders) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        for (Object holder : holders) {
+            Class<?> holderClass = holder.getClass();
+            digest.update(holderClass.getName().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+
+            String classFile = holderClass.getName().substring(holderClass.getName().lastIndexOf('.') + 1) + ".class";
+            try (InputStream in = holderClass.getResourceAsStream(classFile)) {
+                if (in != null) {
+                    digest.update(in.readAllBytes());
+                    continue;
+                }
+            } catch (IOException ignore) {}
+
+            // class-file is not available, use the signatures and annotations of the methods instead
+            for (Method method : holderClass.getDeclaredMethods()) {
+                digest.update(method.toGenericString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                digest.update(Arrays.deepToString(method.getParameterAnnotations()).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                digest.update(Arrays.toString(method.getAnnotations()).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            }
+        }
+
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static @Nullable String getSnapshotExecutableKey(CommandExecutable<?, ?> executable, Map<Object, Integer> holderIndexes) {
+        if (!(executable instanceof MethodCommandExecutable)) return null;
+        MethodCommandExecutable<?> methodExecutable = (MethodCommandExecutable<?>) executable;
+
+        Integer holderIndex = holderIndexes.get(methodExecutable.getHolder());
+        if (holderIndex == null) return null;
+
+        // holder-index, declaring class, method-name, parameter-types
+        Method method = methodExecutable.getMethod();
+        StringBuilder key = new StringBuilder()
+                .append(holderIndex).append('\0')
+                .append(method.getDeclaringClass().getName()).append('\0')
+                .append(method.getName());
+        for (Class<?> parameterType : method.getParameterTypes())
+            key.append('\0').append(parameterType.getName());
+        return key.toString();
+    }
+
+    private CommandExecutable<C, Object> resolveSnapshotExecutable(
+            String key,
+            List<?> holders,
+            Map<String, MethodCommandExecutable.MethodModel<C>> methodModels
+    ) {
+        String[] parts = key.split("\0", -1);
+        Object holder = holders.get(Integer.parseInt(parts[0]));
+        String methodKey = key.substring(parts[0].length() + 1);
+
+        MethodCommandExecutable.MethodModel<C> methodModel = methodModels.get(methodKey);
+        if (methodModel == null) {
+            ClassLoader classLoader = holder.getClass().getClassLoader();
+            try {
+                Class<?> declaringClass = loadClass(parts[1], classLoader);
+                Class<?>[] parameterTypes = new Class<?>[parts.length - 3];
+                for (int i = 0; i < parameterTypes.length; i++)
+                    parameterTypes[i] = loadClass(parts[i + 3], classLoader);
+
+                methodModel = new MethodCommandExecutable.MethodModel<>(declaringClass.getDeclaredMethod(parts[2], parameterTypes), this);
+            } catch (ClassNotFoundException | NoSuchMethodException ex) {
+                throw new CommandSetupException("Command-method not found for snapshot-key: " + key, ex);
+            }
+            methodModels.putIfAbsent(methodKey, methodModel);
+        }
+
+        return new MethodCommandExecutable<>(methodModel, holder, this);
+    }
+
+    private static Class<?> loadClass(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        switch (name) {
+            case "boolean": return boolean.class;
+            case "byte": return byte.class;
+            case "short": return short.class;
+            case "char": return char.class;
+            case "int": return int.class;
+            case "long": return long.class;
+            case "float": return float.class;
+            case "double": return double.class;
+            default: return Class.forName(name, false, classLoader);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private @Nullable ArgumentParser<C, ?> resolveSnapshotParser(String key, List<?> holders) {
+        String[] parts = key.split("\0", -1);
+
+        ArgumentParser<C, ?> argumentParser = null;
+        switch (parts[0]) {
+            case "id":
+                argumentParser = getArgumentParser(parts[1]);
+                break;
+            case "type":
+                for (var entry : argumentParsersByArgumentType.entrySet()) {
+                    if (entry.getKey().getName().equals(parts[1])) argumentParser = entry.getValue();
+                }
+                break;
+            case "parser":
+                for (Object holder : holders) {
+                    try {
+                        Class<?> parserType = Class.forName(parts[1], false, holder.getClass().getClassLoader());
+                        argumentParser = getArgumentParser((Class) parserType);
+                        break;
+                    } catch (ClassNotFoundException ignore) {}
+                }
+                break;
+        }
+
+        // the parser is not registered anymore, the snapshot can not be used
+        if (argumentParser == null) return null;
+
+        for (int i = 2; i < parts.length; i++) {
+            if (parts[i].equals("pattern")) {
+                argumentParser = applyPattern(argumentParser, parts[++i]);
+            } else if (parts[i].equals("range")) {
+                argumentParser = applyRange(argumentParser, Double.parseDouble(parts[++i]), Double.parseDouble(parts[++i]));
+            }
+        }
+
+        snapshotParserKeys.put(argumentParser, key);
+        return argumentParser;
+    }
+
+    /**
+     * Returns the name of the command-factory that the bluecommands-processor generates for the given holder-class.
+     */
+    public static String getCommandFactoryName(Class<?> holderClass) {
+        String name = holderClass.getName();
+        int packageEnd = name.lastIndexOf('.');
+        return name.substring(0, packageEnd + 1) + name.substring(packageEnd + 1).replace('$', '_') + "_CommandFactory";
+    }
+
+    private static Optional<CommandFactory> findCommandFactory(Class<?> holderClass) {
+        return Optional.ofNullable(loadCommandFactories(holderClass.getClassLoader()).get(holderClass));
+    }
+
+    /**
+     * Loads the command-factories of a class-loader once, instead of iterating the services again for every
+     * holder-class.
+     */
+    private static Map<Class<?>, CommandFactory> loadCommandFactories(@Nullable ClassLoader classLoader) {
+        synchronized (LOADED_COMMAND_FACTORIES) {
+            SoftReference<Map<Class<?>, CommandFactory>> reference = LOADED_COMMAND_FACTORIES.get(classLoader);
+            Map<Class<?>, CommandFactory> factories = reference != null ? reference.get() : null;
+            if (factories != null) return factories;
+
+            factories = new HashMap<>();
+            for (CommandFactory factory : ServiceLoader.load(CommandFactory.class, classLoader))
+                factories.putIfAbsent(factory.getHolderType(), factory);
+
+            LOADED_COMMAND_FACTORIES.put(classLoader, new SoftReference<>(factories));
+            return factories;
+        }
+    }
+
+    private CommandHolderModel<C> getHolderModel(Class<?> holderClass) {
+        // not using computeIfAbsent, so the models of different classes can be created in parallel
+        CommandHolderModel<C> model = holderModels.get(holderClass);
+        if (model == null) {
+            model = createHolderModel(holderClass);
+            CommandHolderModel<C> existing = holderModels.putIfAbsent(holderClass, model);
+            if (existing != null) model = existing;
+        }
+        return model;
+    }
+
+    /**
+     * Reads the command-methods of a holder-class, the model is cached until the argument-parsers change
+     * so more holders of the same class can be created without reflection.
+     */
+    private CommandHolderModel<C> createHolderModel(Class<?> holderClass) {
+        CommandHolderModel<C> model = new CommandHolderModel<>();
+
         String[] descriptionPrefixes = new String[]{""};
         var holderCommand = holderClass.getAnnotation(de.bluecolored.bluecommands.annotations.Command.class);
         if (holderCommand != null) {
             descriptionPrefixes = holderCommand.value();
         }
 
+        Map<Method, Integer> methodIndexes = new HashMap<>();
         for (String descriptionPrefix : descriptionPrefixes) {
             for (Method method : holderClass.getDeclaredMethods()){
                 var command = method.getAnnotation(de.bluecolored.bluecommands.annotations.Command.class);
                 if (command == null) continue;
 
-                for (String description : command.value()) {
-                    root.addSubCommand(createCommand(holder, method, descriptionPrefix + " " + description));
+                try {
+                    Integer methodIndex = methodIndexes.get(method);
+                    if (methodIndex == null) {
+                        methodIndex = model.addMethod(new MethodCommandExecutable.MethodModel<>(method, this));
+                        methodIndexes.put(method, methodIndex);
+                    }
+
+                    for (String description : command.value()) {
+                        model.addPath(methodIndex, parseDescription(method, descriptionPrefix + " " + description));
+                    }
+                } catch (CommandSetupException ex) {
+                    throw new CommandSetupException(ex.getMessage() + "\nMethod: " + method, ex);
                 }
             }
         }
 
-        return root;
+        return model;
     }
 
-    private Command<C, Object> createCommand(Object holder, Method method, String description) {
+    private List<CommandHolderModel.Token<C>> parseDescription(Method method, String description) {
         String[] tokens = description.isBlank() ? new String[0] : description.trim().split(" +");
-        try {
-            return createCommand(holder, method, tokens, 0);
-        } catch (CommandSetupException ex) {
-            throw new CommandSetupException(ex.getMessage() + "\nMethod: " + method, ex);
+        List<CommandHolderModel.Token<C>> parsedTokens = new ArrayList<>(tokens.length);
+        for (String token : tokens) {
+            parsedTokens.add(parseToken(method, token));
         }
+        return parsedTokens;
     }
 
-    private Command<C, Object> createCommand(Object holder, Method method, String[] tokens, int nextToken) {
-        if (nextToken >= tokens.length) {
-            Command<C, Object> command = new Command<>();
-            command.setExecutable(new MethodCommandExecutable<>(method, holder, this));
-            return command;
-        }
-
-        String token = tokens[nextToken];
+    private CommandHolderModel.Token<C> parseToken(Method method, String token) {
         boolean optional = false;
         Matcher argumentMatcher = ARGUMENT_PATTERN.matcher(token);
-        Command<C, Object> command;
 
         if (!argumentMatcher.matches()) {
             argumentMatcher = OPTIONAL_ARGUMENT_PATTERN.matcher(token);
@@ -125,75 +449,100 @@ public class BlueCommands<C> {
         }
 
         if (!argumentMatcher.matches()) {
-            command = new LiteralCommand<>(token);
-            //optional = false;
-        } else {
-            String argumentId = argumentMatcher.group(1);
-
-            Parameter parameter = null;
-            for (Parameter param : method.getParameters()) {
-                Argument argument = param.getAnnotation(Argument.class);
-                if (argument != null && argument.value().equals(argumentId)) {
-                    parameter = param;
-                    break;
-                }
-            }
-            if (parameter == null) throw new CommandSetupException(String.format(
-                    "Argument '%s' is missing in method-signature.",
-                    argumentId
-            ));
-
-            Parser parser = parameter.getAnnotation(Parser.class);
-            ParserType parserType = parameter.getAnnotation(ParserType.class);
-            ArgumentParser<C, ?> argumentParser;
-            if (parser != null) {
-                argumentParser = getArgumentParser(parser.value());
-            } else if (parserType != null) {
-                //noinspection unchecked,rawtypes
-                argumentParser = getArgumentParser((Class) parserType.value());
-            } else {
-                argumentParser = getParserByArgumentType(parameter.getType());
-            }
+            return CommandHolderModel.Token.literal(token);
+        }
 
-            if (argumentParser == null) throw new CommandSetupException(String.format(
-                    "No Argument-Parser found for Argument '%s'.",
-                    argumentId
-            ));
-
-            // add pattern to string arguments
-            if (argumentParser.getClass() == StringArgumentParser.class) {
-                Pattern pattern = parameter.getAnnotation(Pattern.class);
-                if (pattern != null) {
-                    //noinspection unchecked
-                    StringArgumentParser<C> stringArgumentParser = (StringArgumentParser<C>) argumentParser;
-                    argumentParser = stringArgumentParser.withPattern(pattern.value());
-                }
-            }
+        String argumentId = argumentMatcher.group(1);
 
-            // add range to number arguments
-            if (argumentParser.getClass() == NumberArgumentParser.class) {
-                Range range = parameter.getAnnotation(Range.class);
-                if (range != null) {
-                    //noinspection unchecked
-                    NumberArgumentParser<C, ?> numberArgumentParser = (NumberArgumentParser<C, ?>) argumentParser;
-                    argumentParser = numberArgumentParser.withBounds(range.min(), range.max());
-                }
+        Parameter parameter = null;
+        for (Parameter param : method.getParameters()) {
+            Argument argument = param.getAnnotation(Argument.class);
+            if (argument != null && argument.value().equals(argumentId)) {
+                parameter = param;
+                break;
             }
+        }
+        if (parameter == null) throw new CommandSetupException(String.format(
+                "Argument '%s' is missing in method-signature.",
+                argumentId
+        ));
+
+        Parser parser = parameter.getAnnotation(Parser.class);
+        ParserType parserType = parameter.getAnnotation(ParserType.class);
+        ArgumentParser<C, ?> argumentParser;
+        StringBuilder snapshotKey = new StringBuilder();
+        if (parser != null) {
+            argumentParser = getArgumentParser(parser.value());
+            snapshotKey.append("id\0").append(parser.value());
+        } else if (parserType != null) {
+            //noinspection unchecked,rawtypes
+            argumentParser = getArgumentParser((Class) parserType.value());
+            snapshotKey.append("parser\0").append(parserType.value().getName());
+        } else {
+            argumentParser = getParserByArgumentType(parameter.getType());
+            snapshotKey.append("type\0").append(parameter.getType().getName());
+        }
+
+        argumentParser = requireArgumentParser(argumentParser, argumentId);
 
-            command = new ArgumentCommand<>(argumentId, argumentParser, optional);
+        Pattern pattern = parameter.getAnnotation(Pattern.class);
+        if (pattern != null) {
+            argumentParser = applyPattern(argumentParser, pattern.value());
+            snapshotKey.append("\0pattern\0").append(pattern.value());
         }
 
-        command.addSubCommand(createCommand(holder, method, tokens, nextToken + 1));
+        Range range = parameter.getAnnotation(Range.class);
+        if (range != null) {
+            argumentParser = applyRange(argumentParser, range.min(), range.max());
+            snapshotKey.append("\0range\0").append(range.min()).append("\0").append(range.max());
+        }
 
-        return command;
+        snapshotParserKeys.put(argumentParser, snapshotKey.toString());
+
+        return CommandHolderModel.Token.argument(argumentId, argumentParser, optional);
+    }
+
+    /**
+     * Throws a {@link CommandSetupException} if no argument-parser has been found for the argument.
+     */
+    public ArgumentParser<C, ?> requireArgumentParser(@Nullable ArgumentParser<C, ?> argumentParser, String argumentId) {
+        if (argumentParser == null) throw new CommandSetupException(String.format(
+                "No Argument-Parser found for Argument '%s'.",
+                argumentId
+        ));
+        return argumentParser;
+    }
+
+    /**
+     * Adds the pattern (of a {@link Pattern}-annotation) to string-arguments, other argument-parsers are returned unchanged.
+     */
+    public ArgumentParser<C, ?> applyPattern(ArgumentParser<C, ?> argumentParser, String pattern) {
+        if (argumentParser.getClass() != StringArgumentParser.class) return argumentParser;
+
+        //noinspection unchecked
+        StringArgumentParser<C> stringArgumentParser = (StringArgumentParser<C>) argumentParser;
+        return stringArgumentParser.withPattern(pattern);
+    }
+
+    /**
+     * Adds the range (of a {@link Range}-annotation) to number-arguments, other argument-parsers are returned unchanged.
+     */
+    public ArgumentParser<C, ?> applyRange(ArgumentParser<C, ?> argumentParser, double min, double max) {
+        if (argumentParser.getClass() != NumberArgumentParser.class) return argumentParser;
+
+        //noinspection unchecked
+        NumberArgumentParser<C, ?> numberArgumentParser = (NumberArgumentParser<C, ?>) argumentParser;
+        return numberArgumentParser.withBounds(min, max);
     }
 
     public void setArgumentParserForId(String id, ArgumentParser<C, ?> argumentParser) {
         argumentParsersById.put(id, argumentParser);
+        holderModels.clear();
     }
 
     public <T> void setArgumentParserForArgumentType(Class<T> type, ArgumentParser<C, ? extends T> argumentParser) {
         argumentParsersByArgumentType.put(type, argumentParser);
+        holderModels.clear();
     }
 
     public <T> void setContextResolverForType(Class<T> type, Function<C, T> contextResolver) {
@@ -209,6 +558,42 @@ public class BlueCommands<C> {
 
     public <A extends Annotation> void setAnnotationContextPredicate(Class<A> annotationType, BiPredicate<@Nullable A, C> contextPredicate) {
         annotationContextPredicate.put(annotationType, contextPredicate);
+        invalidateContexts();
+    }
+
+    /**
+     * Enables caching of the validation-results (the results of the context-predicates) for each context.<br>
+     * The results are cached under the key that the function returns for a context, returning <code>null</code>
+     * disables caching for that context. Results are discarded after the given time, and the least recently used
+     * contexts are evicted once more than maximumSize contexts are cached.
+     */
+    public void setContextCache(Function<C, ?> contextKeyFunction, int maximumSize, Duration expireAfter) {
+        this.validationCache = new ValidationCache<>(contextKeyFunction, new ExpiringCache<>(maximumSize, expireAfter));
+    }
+
+    /**
+     * Disables caching of the validation-results (the default), every validation tests the context-predicates again.
+     */
+    public void disableContextCache() {
+        this.validationCache = null;
+    }
+
+    /**
+     * Invalidates all cached validation-results for the context with the given key.<br>
+     * This should be called whenever the result of a context-predicate may have changed for this context,
+     * e.g. when the permissions of a player changed.
+     */
+    public void invalidateContext(Object key) {
+        ValidationCache<C> validationCache = this.validationCache;
+        if (validationCache != null) validationCache.results.remove(key);
+    }
+
+    /**
+     * Invalidates all cached validation-results.
+     */
+    public void invalidateContexts() {
+        ValidationCache<C> validationCache = this.validationCache;
+        if (validationCache != null) validationCache.results.clear();
     }
 
     @SuppressWarnings("unchecked")
@@ -229,6 +614,18 @@ public class BlueCommands<C> {
         });
     }
 
+    /**
+     * Same as {@link #getArgumentParser(Class)}, but creates the instance using the given constructor instead of
+     * using reflection.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ArgumentParser<C, T> getArgumentParser(
+            Class<? extends ArgumentParser<C, T>> parserType,
+            Supplier<? extends ArgumentParser<C, T>> constructor
+    ) {
+        return (ArgumentParser<C, T>) argumentParsersByType.computeIfAbsent(parserType, type -> constructor.get());
+    }
+
     public @Nullable ArgumentParser<C, ?> getArgumentParser(String id) {
         return argumentParsersById.get(id);
     }
@@ -244,21 +641,112 @@ public class BlueCommands<C> {
     }
 
     public boolean checkContext(C context) {
-        for (var predicate : annotationContextPredicate.values()) {
-            if (!predicate.test(null, context)) return false;
+        return checkContext(context, NO_METHOD, () -> {
+            for (var predicate : annotationContextPredicate.values()) {
+                if (!predicate.test(null, context)) return false;
+            }
+            return true;
+        });
+    }
+
+    public boolean checkContext(C context, Method method) {
+        return checkContext(context, method, () -> testContext(context, method::getAnnotation));
+    }
+
+    /**
+     * Same as {@link #checkContext(Object, Method)}, but the annotation-predicates are tested against the given
+     * annotations instead of the annotations of a method. This is used by the generated {@link CommandFactory}s,
+     * which know the annotations of their command-methods at compile-time.
+     *
+     * @param key a unique key for the checked annotations, used to cache the results of the check
+     */
+    public boolean checkContext(C context, Object key, Map<Class<? extends Annotation>, ? extends Annotation> annotations) {
+        return checkContext(context, key, () -> testContext(context, annotations::get));
+    }
+
+    /**
+     * Same as {@link #checkContext(Object, Method)}, but the cached validation-results of the context are only looked
+     * up once for all checks with the same shared state, see {@link CommandExecutable#isValid(Object, Map)}.
+     */
+    public boolean checkContext(C context, Method method, Map<Object, Object> sharedState) {
+        return checkContext(context, method, () -> testContext(context, method::getAnnotation), sharedState);
+    }
+
+    /**
+     * Same as {@link #checkContext(Object, Object, Map)}, but the cached validation-results of the context are only
+     * looked up once for all checks with the same shared state, see {@link CommandExecutable#isValid(Object, Map)}.
+     */
+    public boolean checkContext(
+            C context, Object key,
+            Map<Class<? extends Annotation>, ? extends Annotation> annotations,
+            Map<Object, Object> sharedState
+    ) {
+        return checkContext(context, key, () -> testContext(context, annotations::get), sharedState);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean checkContext(C context, Object key, BooleanSupplier test, Map<Object, Object> sharedState) {
+        ValidationCache<C> validationCache = this.validationCache;
+        if (validationCache == null) return test.getAsBoolean();
+
+        // keyed by the cache itself, so results of a cache that has been replaced in the meantime are never used
+        Map<Object, Boolean> results = (Map<Object, Boolean>) sharedState.computeIfAbsent(validationCache, cache -> validationCache.getResults(context));
+        return checkContext(results, key, test);
+    }
+
+    private boolean checkContext(C context, Object key, BooleanSupplier test) {
+        ValidationCache<C> validationCache = this.validationCache;
+        if (validationCache == null) return test.getAsBoolean();
+        return checkContext(validationCache.getResults(context), key, test);
+    }
+
+    private boolean checkContext(Map<Object, Boolean> results, Object key, BooleanSupplier test) {
+        if (results == NO_RESULTS) return test.getAsBoolean();
+
+        Boolean result = results.get(key);
+        if (result == null) {
+            result = test.getAsBoolean();
+            results.put(key, result);
         }
-        return true;
+        return result;
     }
 
     @SuppressWarnings({"rawtypes", "unchecked"})
-    public boolean checkContext(C context, Method method) {
+    private boolean testContext(C context, Function<Class<? extends Annotation>, ? extends Annotation> annotations) {
         for (var entry : annotationContextPredicate.entrySet()) {
             Class<? extends Annotation> annotationType = entry.getKey();
-            Annotation annotation = annotationType != null ? method.getAnnotation(entry.getKey()) : null;
+            Annotation annotation = annotationType != null ? annotations.apply(annotationType) : null;
             BiPredicate predicate = entry.getValue();
             if (!predicate.test(annotation, context)) return false;
         }
         return true;
     }
 
+    private static class ValidationCache<C> {
+
+        private final Function<C, ?> contextKeyFunction;
+        private final ExpiringCache<Object, Map<Object, Boolean>> results;
+
+        private ValidationCache(Function<C, ?> contextKeyFunction, ExpiringCache<Object, Map<Object, Boolean>> results) {
+            this.contextKeyFunction = contextKeyFunction;
+            this.results = results;
+        }
+
+        /**
+         * Returns the cached validation-results of the context, or {@link #NO_RESULTS} if the context is not cached.
+         */
+        private Map<Object, Boolean> getResults(@Nullable C context) {
+            Object key = context != null ? contextKeyFunction.apply(context) : null;
+            if (key == null) return NO_RESULTS;
+
+            Map<Object, Boolean> contextResults = results.get(key);
+            if (contextResults == null) {
+                contextResults = new ConcurrentHashMap<>();
+                results.put(key, contextResults);
+            }
+            return contextResults;
+        }
+
+    }
+
 }
@@ -24,22 +24,37 @@
  */
 package de.bluecolored.bluecommands;
 
+import de.bluecolored.bluecommands.parsers.ArgumentParser;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 public class Command<C, T> {
 
+    /**
+     * The number of subcommands after which they are indexed by their merge-key.
+     */
+    private static final int SUB_COMMAND_INDEX_THRESHOLD = 8;
+
     private final Collection<Command<C, T>> subCommands;
     private @Nullable CommandExecutable<C, T> executable;
 
-    private transient C lastValidationContext;
-    private transient boolean lastValidationResult;
-    private transient long lastValidationTime;
+    // the subcommands by their merge-key, so adding a subcommand doesn't need to test all others for merging
+    private transient @Nullable Map<Object, List<Command<C, T>>> subCommandIndex;
+
+    // the commands this command has been added to, so modifications can be propagated to the roots of all trees
+    private transient @Nullable List<Command<C, T>> parents;
+
+    // incremented on every modification of the tree starting at this command, used to detect if the compiled tree is outdated
+    private transient volatile long revision;
 
-    private transient boolean lastTreeOptionalResult;
-    private transient long lastTreeOptionalTime;
+    private transient volatile @Nullable CompiledCommandTree<C, T> compiled;
+
+    // creates the subcommands of a command that has been read from a snapshot once they are first needed
+    private transient volatile @Nullable Supplier<List<Command<C, T>>> subCommandLoader;
 
     public Command() {
         this.subCommands = new ArrayList<>(1);
@@ -52,10 +67,12 @@ public class Command<C, T> {
 
     public void setExecutable(@Nullable CommandExecutable<C, T> executable) {
         this.executable = executable;
+        markModified();
     }
 
     public Collection<Command<C, T>> getSubCommands() {
-        return subCommands;
+        loadSubCommands();
+        return Collections.unmodifiableCollection(subCommands);
     }
 
     public ParseResult<C, T> parse(C context, String input) {
@@ -63,94 +80,127 @@ public class Command<C, T> {
     }
 
     public ParseResult<C, T> parse(C context, InputReader input) {
-        ParseData<C, T> stack = new ParseData<>(context, input, this);
-        parse(stack);
-        return stack.getResult();
+        return parse(context, input, ParseMode.FULL);
     }
 
-    void parse(ParseData<C, T> data) {
-        if (!isValid(data.getContext())) return;
+    public ParseResult<C, T> parse(C context, String input, ParseMode mode) {
+        return parse(context, new InputReader(input), mode);
+    }
 
-        InputReader input = data.getInput();
-        int inputPosition = input.getPosition();
-        if (executable != null && executable.isValid(data.getContext())) {
-            if (input.peek() == -1)
-                data.getResult().addMatch(new ParseMatch<>(executable, data.getContext(), data.getArguments(), data.getCommandStack()));
-            else
-                data.getResult().addFailure(new ParseFailure<>(inputPosition, "Too many arguments.", data.getCommandStack()));
-        }
+    public ParseResult<C, T> parse(C context, InputReader input, ParseMode mode) {
+        return compile().parse(context, input, mode);
+    }
 
-        if (getClass() == Command.class || inputPosition == 0 || input.read() == ' ') {
-            for (Command<C, T> subCommand : subCommands) {
-                try {
-                    data.pushSegment(subCommand);
-                    subCommand.parse(data);
-                } finally {
-                    data.popSegment();
-                }
-            }
-        } else if (!subCommands.isEmpty()) {
-            if (isSubTreeOptional()) {
-                gatherAllExecutables(data.getContext(), executable -> {
-                    data.getResult().addMatch(new ParseMatch<>(executable, data.getContext(), data.getArguments(), data.getCommandStack()));
-                });
-            } else {
-                data.getResult().addFailure(new ParseFailure<>(inputPosition, "Not enough arguments!", data.getCommandStack()));
-            }
-        }
+    /**
+     * Parses the input and only returns the (first) match with the highest priority,
+     * or the failure that got the furthest into the input if there is no match.
+     * @see ParseMode#BEST
+     */
+    public ParseResult<C, T> parseBest(C context, String input) {
+        return parseBest(context, new InputReader(input));
     }
 
-    public boolean isOptional() {
-        return false;
+    /**
+     * Parses the input and only returns the (first) match with the highest priority,
+     * or the failure that got the furthest into the input if there is no match.
+     * @see ParseMode#BEST
+     */
+    public ParseResult<C, T> parseBest(C context, InputReader input) {
+        return compile().parseBest(context, input);
     }
 
-    private void gatherAllExecutables(C context, Consumer<CommandExecutable<C, T>> consumer) {
-        if (this.executable != null && this.isValid(context))
-            consumer.accept(executable);
+    /**
+     * Same as {@link #parseBest(Object, InputReader)}, but only literals and (non-optional) arguments that are
+     * accepted by the filter are parsed.
+     */
+    public ParseResult<C, T> parseBest(C context, InputReader input, ParseFilter<C, T> filter) {
+        return compile().parseBest(context, input, filter);
+    }
 
-        for (Command<C, T> subCommand : subCommands)
-            subCommand.gatherAllExecutables(context, consumer);
+    /**
+     * Same as {@link #parseBest(Object, InputReader, ParseFilter)}, but parsing starts at the end of the given path of
+     * already resolved literals, see {@link CompiledCommandTree#parseBest(Object, InputReader, List, ParseFilter)}.
+     */
+    public ParseResult<C, T> parseBest(C context, InputReader input, List<? extends LiteralCommand<C, T>> literalPath, ParseFilter<C, T> filter) {
+        return compile().parseBest(context, input, literalPath, filter);
     }
 
-    private boolean isSubTreeOptional() {
-        for (Command<C, T> subCommand : subCommands)
-            if (!subCommand.isTreeOptional()) return false;
-        return true;
+    /**
+     * Collects the suggestions for the word at the cursor (starting after the last space before the cursor).<br>
+     * Only the input before the cursor is parsed, and only branches that are consistent with it are visited.
+     */
+    public List<Suggestion> suggest(C context, String input, int cursor) {
+        return suggest(context, new InputReader(input), cursor);
     }
 
-    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
-    private boolean isTreeOptional() {
-        long now = System.currentTimeMillis();
-        if (lastTreeOptionalTime < now - 1000) {
-            lastTreeOptionalResult = checkTreeOptional();
-            lastTreeOptionalTime = now;
-        }
-        return lastTreeOptionalResult;
+    /**
+     * Collects the suggestions for the word at the cursor (starting after the last space before the cursor).<br>
+     * Only the input before the cursor is parsed, and only branches that are consistent with it are visited.
+     */
+    public List<Suggestion> suggest(C context, InputReader input, int cursor) {
+        return compile().suggest(context, input, cursor);
     }
 
-    private boolean checkTreeOptional() {
-        if (!isOptional()) return false;
-        for (Command<C, T> subCommand : subCommands)
-            if (!subCommand.isTreeOptional()) return false;
-        return true;
+    /**
+     * Collects the suggestions for the word at the cursor (starting after the last space before the cursor).<br>
+     * Only the input before the cursor is parsed, and only branches that are consistent with it are visited.<br>
+     * Literals are only suggested if they start with the word at the cursor (ignoring case) and in sorted order.
+     * At most <code>limit</code> suggestions are returned.
+     */
+    public List<Suggestion> suggest(C context, InputReader input, int cursor, int limit) {
+        return compile().suggest(context, input, cursor, limit);
+    }
+
+    /**
+     * Same as {@link #suggest(Object, InputReader, int)}, but the suggestions of argument-parsers are collected
+     * using {@link ArgumentParser#suggestAsync(Object, InputReader)}, so slow parsers don't block the calling thread.
+     */
+    public CompletableFuture<List<Suggestion>> suggestAsync(C context, InputReader input, int cursor) {
+        return compile().suggestAsync(context, input, cursor);
+    }
+
+    /**
+     * Same as {@link #suggest(Object, InputReader, int, int)}, but the suggestions of argument-parsers are collected
+     * using {@link ArgumentParser#suggestAsync(Object, InputReader)}, so slow parsers don't block the calling thread.<br>
+     * The cancellation is checked regularly while parsing, once it returns true the parsing is aborted and the
+     * returned future completes with an empty list.
+     */
+    public CompletableFuture<List<Suggestion>> suggestAsync(C context, InputReader input, int cursor, int limit, BooleanSupplier cancellation) {
+        return compile().suggestAsync(context, input, cursor, limit, cancellation);
     }
 
-    public synchronized boolean isValid(C context) {
-        long now = System.currentTimeMillis();
-        if (lastValidationTime < now - 1000 || lastValidationContext == null || !lastValidationContext.equals(context)) {
-            lastValidationResult = checkValid(context);
-            lastValidationContext = context;
-            lastValidationTime = now;
+    /**
+     * Returns an immutable, compiled snapshot of the command-tree starting at this command.<br>
+     * The compiled tree is cached and only recompiled if this command or any of its subcommands has been modified in the meantime.
+     */
+    public CompiledCommandTree<C, T> compile() {
+        long revision = this.revision;
+        CompiledCommandTree<C, T> compiled = this.compiled;
+        if (compiled == null || compiled.getRevision() != revision) {
+            compiled = new CompiledCommandTree<>(this, revision);
+            this.compiled = compiled;
         }
-        return lastValidationResult;
+        return compiled;
+    }
+
+    public boolean isOptional() {
+        return false;
     }
 
-    private boolean checkValid(C context) {
-        if (executable != null && executable.isValid(context))
+    /**
+     * Returns true if this command or any of its subcommands has an executable that is valid for the given context.
+     */
+    public boolean isValid(C context) {
+        return isValid(context, new HashMap<>());
+    }
+
+    private boolean isValid(C context, Map<Object, Object> validationState) {
+        loadSubCommands();
+        if (executable != null && executable.isValid(context, validationState))
             return true;
 
         for (Command<C, T> subCommand : subCommands) {
-            if (subCommand.isValid(context))
+            if (subCommand.isValid(context, validationState))
                 return true;
         }
 
@@ -164,6 +214,14 @@ public class Command<C, T> {
         return getClass() == other.getClass();
     }
 
+    /**
+     * Returns a key that is used to find the commands this command might be merged with.
+     * Commands that are {@link #isEqual(Command) equal} have to return equal keys.
+     */
+    public Object getMergeKey() {
+        return getClass();
+    }
+
     public boolean tryMerge(Command<C, T> other) {
         if (!isEqual(other)) return false;
         merge(other);
@@ -171,9 +229,12 @@ public class Command<C, T> {
     }
 
     private void merge(Command<C, T> other) {
+        other.loadSubCommands();
+
         if (other.executable != null) {
             if (this.executable != null) throw new CommandSetupException("Ambiguous command executable!");
             this.executable = other.executable;
+            markModified();
         }
 
         for (Command<C, T> otherSubCommand : other.subCommands) {
@@ -187,14 +248,70 @@ public class Command<C, T> {
             return;
         }
 
-        boolean merged = false;
-        for (Command<C, T> thisSubCommand : this.subCommands) {
-            if (thisSubCommand.tryMerge(subCommand)) {
-                merged = true;
-                break;
-            }
+        loadSubCommands();
+
+        if (subCommandIndex == null && subCommands.size() >= SUB_COMMAND_INDEX_THRESHOLD) {
+            subCommandIndex = new HashMap<>();
+            for (Command<C, T> thisSubCommand : subCommands)
+                indexSubCommand(thisSubCommand);
+        }
+
+        Collection<Command<C, T>> candidates = subCommandIndex != null ?
+                subCommandIndex.getOrDefault(subCommand.getMergeKey(), Collections.emptyList()) :
+                this.subCommands;
+        for (Command<C, T> thisSubCommand : candidates) {
+            if (thisSubCommand.tryMerge(subCommand))
+                return;
         }
-        if (!merged) this.subCommands.add(subCommand);
+
+        this.subCommands.add(subCommand);
+        if (subCommandIndex != null) indexSubCommand(subCommand);
+        subCommand.addParent(this);
+        markModified();
+    }
+
+    /**
+     * Increments the revision of this command and all its parents, so all compiled trees containing this command
+     * are recompiled on their next use.
+     */
+    private void markModified() {
+        revision++;
+        if (parents == null) return;
+        for (Command<C, T> parent : parents)
+            parent.markModified();
+    }
+
+    private void addParent(Command<C, T> parent) {
+        if (parents == null) parents = new ArrayList<>(1);
+        parents.add(parent);
+    }
+
+    /**
+     * Sets a loader that creates the subcommands of this command on first access, see {@link CommandSnapshot}.
+     */
+    void setSubCommandLoader(Supplier<List<Command<C, T>>> subCommandLoader) {
+        this.subCommandLoader = subCommandLoader;
+    }
+
+    private void loadSubCommands() {
+        if (subCommandLoader == null) return;
+        synchronized (this) {
+            Supplier<List<Command<C, T>>> loader = this.subCommandLoader;
+            if (loader == null) return;
+
+            // the snapshot has been written from an already merged tree, so the subcommands are added without merging
+            List<Command<C, T>> loadedSubCommands = loader.get();
+            this.subCommands.addAll(loadedSubCommands);
+            for (Command<C, T> subCommand : loadedSubCommands)
+                subCommand.addParent(this);
+
+            // only cleared once the subcommands are complete, readers that see no loader skip the lock
+            this.subCommandLoader = null;
+        }
+    }
+
+    private void indexSubCommand(Command<C, T> subCommand) {
+        subCommandIndex.computeIfAbsent(subCommand.getMergeKey(), key -> new ArrayList<>(1)).add(subCommand);
     }
 
 }
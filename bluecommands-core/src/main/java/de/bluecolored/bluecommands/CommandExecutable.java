@@ -38,4 +38,13 @@ public interface CommandExecutable<C, T> {
         return true;
     }
 
+    /**
+     * Same as {@link #isValid(Object)}, but with a state that is shared by all validity-checks of one parse or
+     * requirement-check for the same context. Executables can use it to resolve something about the context only
+     * once instead of for each executable, e.g. the cached validation-results of {@link BlueCommands}.
+     */
+    default boolean isValid(C context, Map<Object, Object> sharedState) {
+        return isValid(context);
+    }
+
 }
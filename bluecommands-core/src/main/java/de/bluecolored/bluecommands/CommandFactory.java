@@ -0,0 +1,45 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands;
+
+/**
+ * Creates the command of a holder-object (an object with command-methods) without using reflection.<br>
+ * Implementations are generated by the <code>bluecommands-processor</code> and registered as a service,
+ * {@link BlueCommands#createCommand(Object)} uses them automatically if there is one for the holder's class.
+ */
+public interface CommandFactory {
+
+    /**
+     * The class of the holder-objects this factory can create commands for.
+     */
+    Class<?> getHolderType();
+
+    /**
+     * Creates the same command that {@link BlueCommands#createCommand(Object)} would create for the holder
+     * using reflection.
+     */
+    <C> Command<C, Object> createCommand(BlueCommands<C> blueCommands, Object holder);
+
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands;
+
+import de.bluecolored.bluecommands.parsers.ArgumentParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parsed commands of a holder-class: the tokens of all descriptions with their argument-parsers and
+ * the {@link MethodCommandExecutable.MethodModel} of each command-method.<br>
+ * A model is created once per holder-class and only needs the holder-instance to create the actual commands.
+ */
+class CommandHolderModel<C> {
+
+    private final List<MethodCommandExecutable.MethodModel<C>> methods;
+    private final List<CommandPath<C>> paths;
+
+    CommandHolderModel() {
+        this.methods = new ArrayList<>();
+        this.paths = new ArrayList<>();
+    }
+
+    /**
+     * Adds a method and returns its index for {@link #addPath(int, List)}.
+     */
+    int addMethod(MethodCommandExecutable.MethodModel<C> method) {
+        methods.add(method);
+        return methods.size() - 1;
+    }
+
+    void addPath(int methodIndex, List<Token<C>> tokens) {
+        paths.add(new CommandPath<>(methodIndex, tokens));
+    }
+
+    Command<C, Object> createCommand(Object holder, BlueCommands<C> blueCommands) {
+        List<MethodCommandExecutable<C>> executables = new ArrayList<>(methods.size());
+        for (MethodCommandExecutable.MethodModel<C> method : methods) {
+            executables.add(new MethodCommandExecutable<>(method, holder, blueCommands));
+        }
+
+        Command<C, Object> root = new Command<>();
+        for (CommandPath<C> path : paths) {
+            Command<C, Object> command = new Command<>();
+            command.setExecutable(executables.get(path.methodIndex));
+
+            for (int i = path.tokens.size() - 1; i >= 0; i--) {
+                Command<C, Object> parent = path.tokens.get(i).createCommand();
+                parent.addSubCommand(command);
+                command = parent;
+            }
+
+            root.addSubCommand(command);
+        }
+        return root;
+    }
+
+    private static class CommandPath<C> {
+
+        private final int methodIndex;
+        private final List<Token<C>> tokens;
+
+        private CommandPath(int methodIndex, List<Token<C>> tokens) {
+            this.methodIndex = methodIndex;
+            this.tokens = tokens;
+        }
+
+    }
+
+    /**
+     * A parsed token of a command-description, either a literal or an argument with its argument-parser.
+     */
+    static class Token<C> {
+
+        private final String literal;
+        private final String argumentId;
+        private final ArgumentParser<C, ?> argumentParser;
+        private final boolean optional;
+
+        private Token(String literal, String argumentId, ArgumentParser<C, ?> argumentParser, boolean optional) {
+            this.literal = literal;
+            this.argumentId = argumentId;
+            this.argumentParser = argumentParser;
+            this.optional = optional;
+        }
+
+        private Command<C, Object> createCommand() {
+            if (literal != null) return new LiteralCommand<>(literal);
+            return new ArgumentCommand<>(argumentId, argumentParser, optional);
+        }
+
+        static <C> Token<C> literal(String literal) {
+            return new Token<>(literal, null, null, false);
+        }
+
+        static <C> Token<C> argument(String argumentId, ArgumentParser<C, ?> argumentParser, boolean optional) {
+            return new Token<>(null, argumentId, argumentParser, optional);
+        }
+
+    }
+
+}
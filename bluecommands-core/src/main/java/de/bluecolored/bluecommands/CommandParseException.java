@@ -24,14 +24,19 @@
  */
 package de.bluecolored.bluecommands;
 
+/**
+ * Thrown if some input could not be parsed.<br>
+ * Those exceptions are an expected outcome of parsing user-input (e.g. every non-matching branch of a command-tree
+ * produces one), so they don't record a stack-trace.
+ */
 public class CommandParseException extends Exception {
 
     public CommandParseException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public CommandParseException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 
 }
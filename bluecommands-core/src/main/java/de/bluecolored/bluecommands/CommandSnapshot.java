@@ -0,0 +1,401 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands;
+
+import de.bluecolored.bluecommands.parsers.ArgumentParser;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Writes command-trees into a compact binary file and reads them back.<br>
+ * A snapshot stores the structure of the tree, the literals and argument-ids, and references to the argument-parsers
+ * and executables by a stable key. Reading a snapshot memory-maps the file and only creates the commands of a
+ * subtree once it is first accessed. The argument-parsers are resolved when the snapshot is read, executables only
+ * once they are first validated or executed.<br>
+ * <br>
+ * Supported are trees of {@link Command}s, {@link LiteralCommand}s and {@link ArgumentCommand}s.
+ */
+public class CommandSnapshot {
+
+    private static final int MAGIC = 0x42435348; // "BCSH"
+    private static final int VERSION = 1;
+
+    private static final byte TYPE_COMMAND = 0;
+    private static final byte TYPE_LITERAL = 1;
+    private static final byte TYPE_ARGUMENT = 2;
+
+    private static final byte FLAG_OPTIONAL = 1;
+
+    // type, flags, name, parser, executable, priority, first child, child count
+    private static final int NODE_SIZE = 1 + 1 + 4 + 4 + 4 + 4 + 4 + 4;
+    private static final int NONE = -1;
+
+    private CommandSnapshot() {}
+
+    /**
+     * Writes the command-tree into the file, replacing it if it exists.
+     * @param hash a hash of everything the tree has been built from, see {@link #read(Path, long, Function, Function)}
+     * @param parserKeys returns a stable key for each argument-parser of the tree
+     * @param executableKeys returns a stable key for each executable of the tree
+     */
+    public static <C, T> void write(
+            Command<C, T> command,
+            Path file,
+            long hash,
+            Function<ArgumentParser<C, ?>, String> parserKeys,
+            Function<CommandExecutable<C, T>, String> executableKeys
+    ) throws IOException {
+
+        // breadth-first, so the subcommands of each command are stored next to each other
+        List<Command<C, T>> nodes = new ArrayList<>();
+        nodes.add(command);
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.addAll(nodes.get(i).getSubCommands());
+        }
+
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        Function<String, Integer> stringIndex = string -> stringIndexes.computeIfAbsent(string, s -> {
+            strings.add(s);
+            return strings.size() - 1;
+        });
+
+        Map<String, Integer> parserIndexes = new HashMap<>();
+        List<Integer> parserKeyStrings = new ArrayList<>();
+        Function<String, Integer> parserIndex = key -> parserIndexes.computeIfAbsent(key, k -> {
+            parserKeyStrings.add(stringIndex.apply(k));
+            return parserKeyStrings.size() - 1;
+        });
+
+        ByteBuffer nodeTable = ByteBuffer.allocate(nodes.size() * NODE_SIZE);
+        int nextChild = 1;
+        for (Command<C, T> node : nodes) {
+            byte type;
+            int name = NONE, parser = NONE;
+            if (node.getClass() == Command.class) {
+                type = TYPE_COMMAND;
+            } else if (node.getClass() == LiteralCommand.class) {
+                type = TYPE_LITERAL;
+                name = stringIndex.apply(((LiteralCommand<C, T>) node).getLiteral());
+            } else if (node.getClass() == ArgumentCommand.class) {
+                ArgumentCommand<C, T> argumentCommand = (ArgumentCommand<C, T>) node;
+                type = TYPE_ARGUMENT;
+                name = stringIndex.apply(argumentCommand.getArgumentId());
+                parser = parserIndex.apply(requireKey(parserKeys.apply(argumentCommand.getArgumentParser()), argumentCommand.getArgumentParser()));
+            } else {
+                throw new IllegalArgumentException("Commands of type " + node.getClass() + " can not be stored in a snapshot!");
+            }
+
+            CommandExecutable<C, T> executable = node.getExecutable();
+            int childCount = node.getSubCommands().size();
+
+            nodeTable.put(type);
+            nodeTable.put(node.isOptional() ? FLAG_OPTIONAL : 0);
+            nodeTable.putInt(name);
+            nodeTable.putInt(parser);
+            nodeTable.putInt(executable != null ? stringIndex.apply(requireKey(executableKeys.apply(executable), executable)) : NONE);
+            nodeTable.putInt(executable != null ? executable.getPriority() : 0);
+            nodeTable.putInt(nextChild);
+            nodeTable.putInt(childCount);
+            nextChild += childCount;
+        }
+
+        // write to a temporary file first, so a reader never sees a partially written snapshot
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream fileOut = Files.newOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(hash);
+
+            // string-table: the offsets of all strings, followed by the length-prefixed UTF-8 bytes
+            byte[][] encodedStrings = new byte[strings.size()][];
+            out.writeInt(strings.size());
+            int offset = 0;
+            for (int i = 0; i < encodedStrings.length; i++) {
+                encodedStrings[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(offset);
+                offset += 4 + encodedStrings[i].length;
+            }
+            for (byte[] encoded : encodedStrings) {
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+
+            // parser-table: the string-index of the key of each argument-parser
+            out.writeInt(parserKeyStrings.size());
+            for (int keyString : parserKeyStrings) {
+                out.writeInt(keyString);
+            }
+
+            out.writeInt(nodes.size());
+            out.write(nodeTable.array());
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a command-tree from a snapshot-file.<br>
+     * Returns null if the file does not exist, if it has been written with a different hash or format-version,
+     * if it is corrupted or if any of its argument-parsers can not be resolved anymore.
+     * @param parsers returns the argument-parser for a key (or null if there is none),
+     *                called once for each distinct key while reading the snapshot
+     * @param executables returns the executable for a key, called once for each executable when it is first validated or executed
+     */
+    public static <C, T> @Nullable Command<C, T> read(
+            Path file,
+            long hash,
+            Function<String, ArgumentParser<C, ?>> parsers,
+            Function<String, CommandExecutable<C, T>> executables
+    ) throws IOException {
+        if (!Files.exists(file)) return null;
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            // the header is checked before mapping the file, so an outdated snapshot is never mapped
+            // and can be replaced right away (which is not possible for a mapped file on some systems)
+            ByteBuffer header = ByteBuffer.allocate(16);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) return null;
+            }
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getLong(8) != hash)
+                return null;
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            Reader<C, T> reader = new Reader<>(buffer, executables);
+            if (!reader.resolveParsers(parsers)) return null;
+            reader.validate();
+            return reader.readNode(0);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException ex) {
+            // the tables of the snapshot do not match the file, it is corrupted
+            return null;
+        }
+    }
+
+    private static String requireKey(@Nullable String key, Object object) {
+        if (key == null) throw new IllegalArgumentException("No snapshot-key for: " + object);
+        return key;
+    }
+
+    private static class Reader<C, T> {
+
+        private final ByteBuffer buffer;
+        private final Function<String, CommandExecutable<C, T>> executables;
+
+        private final int stringOffsetsStart, stringsStart, nodesStart;
+        private final String[] strings;
+        private final int parsersStart;
+        private final List<ArgumentParser<C, ?>> argumentParsers;
+
+        private Reader(ByteBuffer buffer, Function<String, CommandExecutable<C, T>> executables) {
+            this.buffer = buffer;
+            this.executables = executables;
+
+            int stringCount = buffer.getInt(16);
+            this.stringOffsetsStart = 20;
+            this.stringsStart = stringOffsetsStart + stringCount * 4;
+
+            int stringsEnd = stringsStart;
+            if (stringCount > 0) {
+                int lastString = stringsStart + buffer.getInt(stringsStart - 4);
+                stringsEnd = lastString + 4 + buffer.getInt(lastString);
+            }
+            this.strings = new String[stringCount];
+
+            int parserCount = buffer.getInt(stringsEnd);
+            this.parsersStart = stringsEnd + 4;
+            this.argumentParsers = new ArrayList<>(parserCount);
+
+            this.nodesStart = parsersStart + parserCount * 4 + 4;
+        }
+
+        /**
+         * Resolves all parsers right away, so a snapshot that references a parser that no longer exists is not used.
+         */
+        private boolean resolveParsers(Function<String, ArgumentParser<C, ?>> parsers) {
+            int parserCount = buffer.getInt(parsersStart - 4);
+            for (int i = 0; i < parserCount; i++) {
+                ArgumentParser<C, ?> argumentParser = parsers.apply(readString(buffer.getInt(parsersStart + i * 4)));
+                if (argumentParser == null) return false;
+                argumentParsers.add(argumentParser);
+            }
+            return true;
+        }
+
+        /**
+         * Checks that all strings and nodes of the snapshot are within the file and only reference existing entries,
+         * so reading the subcommands lazily can not fail after the snapshot has been returned.
+         */
+        private void validate() {
+            for (int i = 0; i < strings.length; i++) {
+                long position = (long) stringsStart + buffer.getInt(stringOffsetsStart + i * 4);
+                if (position < stringsStart || position + 4 > buffer.limit()) throw new IllegalArgumentException("Invalid string-offset in snapshot");
+                int length = buffer.getInt((int) position);
+                if (length < 0 || position + 4 + length > buffer.limit()) throw new IllegalArgumentException("Invalid string-length in snapshot");
+            }
+
+            int nodeCount = buffer.getInt(nodesStart - 4);
+            if (nodeCount <= 0 || nodesStart + (long) nodeCount * NODE_SIZE > buffer.limit())
+                throw new IllegalArgumentException("Invalid node-count in snapshot");
+
+            for (int index = 0; index < nodeCount; index++) {
+                int position = nodesStart + index * NODE_SIZE;
+                byte type = buffer.get(position);
+                int name = buffer.getInt(position + 2);
+                int parser = buffer.getInt(position + 6);
+                int executable = buffer.getInt(position + 10);
+                int firstChild = buffer.getInt(position + 18);
+                int childCount = buffer.getInt(position + 22);
+
+                if (type != TYPE_COMMAND && type != TYPE_LITERAL && type != TYPE_ARGUMENT)
+                    throw new IllegalArgumentException("Invalid command-type in snapshot: " + type);
+                if (type != TYPE_COMMAND && (name < 0 || name >= strings.length))
+                    throw new IllegalArgumentException("Invalid name in snapshot");
+                if (type == TYPE_ARGUMENT && (parser < 0 || parser >= argumentParsers.size()))
+                    throw new IllegalArgumentException("Invalid argument-parser in snapshot");
+                if (executable != NONE && (executable < 0 || executable >= strings.length))
+                    throw new IllegalArgumentException("Invalid executable in snapshot");
+
+                // children are always stored after their parent, which also rules out cycles
+                if (childCount < 0 || (childCount > 0 && (firstChild <= index || childCount > nodeCount - firstChild)))
+                    throw new IllegalArgumentException("Invalid subcommands in snapshot");
+            }
+        }
+
+        private Command<C, T> readNode(int index) {
+            int position = nodesStart + index * NODE_SIZE;
+            byte type = buffer.get(position);
+            boolean optional = (buffer.get(position + 1) & FLAG_OPTIONAL) != 0;
+            int name = buffer.getInt(position + 2);
+            int parser = buffer.getInt(position + 6);
+            int executable = buffer.getInt(position + 10);
+            int priority = buffer.getInt(position + 14);
+            int firstChild = buffer.getInt(position + 18);
+            int childCount = buffer.getInt(position + 22);
+
+            Command<C, T> command;
+            switch (type) {
+                case TYPE_COMMAND: command = new Command<>(); break;
+                case TYPE_LITERAL: command = new LiteralCommand<>(readString(name)); break;
+                case TYPE_ARGUMENT: command = new ArgumentCommand<>(readString(name), argumentParsers.get(parser), optional); break;
+                default: throw new IllegalArgumentException("Invalid command-type in snapshot: " + type);
+            }
+
+            if (executable != NONE)
+                command.setExecutable(new SnapshotExecutable<>(readString(executable), priority, executables));
+
+            if (childCount > 0) {
+                command.setSubCommandLoader(() -> {
+                    List<Command<C, T>> subCommands = new ArrayList<>(childCount);
+                    for (int i = 0; i < childCount; i++)
+                        subCommands.add(readNode(firstChild + i));
+                    return subCommands;
+                });
+            }
+
+            return command;
+        }
+
+        private synchronized String readString(int index) {
+            String string = strings[index];
+            if (string == null) {
+                int position = stringsStart + buffer.getInt(stringOffsetsStart + index * 4);
+                byte[] bytes = new byte[buffer.getInt(position)];
+                buffer.duplicate().position(position + 4).get(bytes);
+                string = new String(bytes, StandardCharsets.UTF_8);
+                strings[index] = string;
+            }
+            return string;
+        }
+
+    }
+
+    /**
+     * An executable of a snapshot, that is only resolved once it is validated or executed.
+     */
+    private static class SnapshotExecutable<C, T> implements CommandExecutable<C, T> {
+
+        private final String key;
+        private final int priority;
+        private final Function<String, CommandExecutable<C, T>> executables;
+        private volatile @Nullable CommandExecutable<C, T> executable;
+
+        private SnapshotExecutable(String key, int priority, Function<String, CommandExecutable<C, T>> executables) {
+            this.key = key;
+            this.priority = priority;
+            this.executables = executables;
+        }
+
+        @Override
+        public T execute(C context, Map<String, Object> arguments) {
+            return resolve().execute(context, arguments);
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public boolean isValid(C context) {
+            return resolve().isValid(context);
+        }
+
+        @Override
+        public boolean isValid(C context, Map<Object, Object> sharedState) {
+            return resolve().isValid(context, sharedState);
+        }
+
+        private CommandExecutable<C, T> resolve() {
+            CommandExecutable<C, T> executable = this.executable;
+            if (executable == null) {
+                executable = executables.apply(key);
+                if (executable == null) throw new CommandSetupException("No executable found for snapshot-key: " + key);
+                this.executable = executable;
+            }
+            return executable;
+        }
+
+    }
+
+}
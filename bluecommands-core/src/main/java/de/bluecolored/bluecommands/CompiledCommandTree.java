@@ -0,0 +1,700 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands;
+
+import de.bluecolored.bluecommands.parsers.ArgumentMismatch;
+import de.bluecolored.bluecommands.parsers.ArgumentParser;
+import de.bluecolored.bluecommands.parsers.SimpleArgumentParser;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * An immutable, flattened snapshot of a {@link Command}-tree, created using {@link Command#compile()}.
+ * <p>
+ * The nodes are stored in flat arrays in pre-order, so the subtree of a node <code>i</code> is the range
+ * <code>[i, subtreeEnds[i])</code> and its children are <code>i + 1</code>, <code>subtreeEnds[i + 1]</code>, ...
+ * Children keep the order in which they were added, which is also the order in which they are parsed, so matches
+ * with equal priorities are reported in the same order as with the uncompiled tree.
+ * Everything that only depends on the structure of the tree (e.g. if a subtree is optional) is precomputed.
+ */
+public final class CompiledCommandTree<C, T> {
+    private static final byte TYPE_COMMAND = 0;
+    private static final byte TYPE_LITERAL = 1;
+    private static final byte TYPE_ARGUMENT = 2;
+
+    private static final int FLAG_OPTIONAL = 1;
+    private static final int FLAG_TREE_OPTIONAL = 1 << 1;
+    private static final int FLAG_SUB_TREE_OPTIONAL = 1 << 2;
+    private static final int FLAG_HAS_EXECUTABLE = 1 << 3;
+
+    private static final byte VALIDITY_UNKNOWN = 0;
+    private static final byte VALIDITY_VALID = 1;
+    private static final byte VALIDITY_INVALID = 2;
+
+    private final long revision;
+    private final int size;
+
+    private final Command<C, T>[] commands;
+    private final byte[] types;
+    private final int[] flags;
+    private final int[] subtreeEnds;
+    private final int[] maxPriorities;
+    private final String[] literals;
+    private final String[] argumentIds;
+    private final ArgumentParser<C, ?>[] argumentParsers;
+    private final CommandExecutable<C, T>[] executables;
+    private final LiteralIndex[] literalIndexes;
+    private final int[][] nonLiteralChildren;
+
+    // the first node of each command, created on first use by isAnyValid
+    private volatile @Nullable Map<Command<C, T>, Integer> nodeIndexes;
+
+    @SuppressWarnings("unchecked")
+    CompiledCommandTree(Command<C, T> root, long revision) {
+        this.revision = revision;
+
+        List<Command<C, T>> nodes = new ArrayList<>();
+        collect(root, nodes);
+        this.size = nodes.size();
+
+        this.commands = nodes.toArray((Command<C, T>[]) new Command<?, ?>[0]);
+        this.types = new byte[size];
+        this.flags = new int[size];
+        this.subtreeEnds = new int[size];
+        this.maxPriorities = new int[size];
+        this.literals = new String[size];
+        this.argumentIds = new String[size];
+        this.argumentParsers = (ArgumentParser<C, ?>[]) new ArgumentParser<?, ?>[size];
+        this.executables = (CommandExecutable<C, T>[]) new CommandExecutable<?, ?>[size];
+        this.literalIndexes = new LiteralIndex[size];
+        this.nonLiteralChildren = new int[size][];
+
+        compile(0);
+    }
+
+    private static <C, T> void collect(Command<C, T> command, List<Command<C, T>> nodes) {
+        nodes.add(command);
+        for (Command<C, T> subCommand : command.getSubCommands())
+            collect(subCommand, nodes);
+    }
+
+    /**
+     * Compiles the node at the given index and all its children and returns the end of its subtree.
+     */
+    private int compile(int node) {
+        Command<C, T> command = commands[node];
+
+        if (command instanceof LiteralCommand) {
+            types[node] = TYPE_LITERAL;
+            literals[node] = ((LiteralCommand<C, T>) command).getLiteral().intern();
+        } else if (command instanceof ArgumentCommand) {
+            ArgumentCommand<C, T> argumentCommand = (ArgumentCommand<C, T>) command;
+            types[node] = TYPE_ARGUMENT;
+            argumentIds[node] = argumentCommand.getArgumentId().intern();
+            argumentParsers[node] = argumentCommand.getArgumentParser();
+        } else {
+            types[node] = TYPE_COMMAND;
+        }
+
+        CommandExecutable<C, T> executable = command.getExecutable();
+        executables[node] = executable;
+        maxPriorities[node] = executable != null ? executable.getPriority() : Integer.MIN_VALUE;
+
+        int flags = FLAG_SUB_TREE_OPTIONAL;
+        if (command.isOptional()) flags |= FLAG_OPTIONAL;
+        if (executable != null) flags |= FLAG_HAS_EXECUTABLE;
+
+        int child = node + 1;
+        int childCount = command.getSubCommands().size();
+        int literalCount = 0, nonLiteralCount = 0;
+        String[] childLiterals = new String[childCount];
+        int[] childLiteralNodes = new int[childCount];
+        int[] childNonLiteralNodes = new int[childCount];
+        for (int i = 0; i < childCount; i++) {
+            int childEnd = compile(child);
+
+            if ((this.flags[child] & FLAG_TREE_OPTIONAL) == 0) flags &= ~FLAG_SUB_TREE_OPTIONAL;
+            maxPriorities[node] = Math.max(maxPriorities[node], maxPriorities[child]);
+
+            if (types[child] == TYPE_LITERAL) {
+                childLiterals[literalCount] = literals[child];
+                childLiteralNodes[literalCount] = child;
+                literalCount++;
+            } else {
+                childNonLiteralNodes[nonLiteralCount++] = child;
+            }
+
+            child = childEnd;
+        }
+
+        if (literalCount > 0) {
+            literalIndexes[node] = new LiteralIndex(
+                    Arrays.copyOf(childLiterals, literalCount),
+                    Arrays.copyOf(childLiteralNodes, literalCount)
+            );
+        }
+        nonLiteralChildren[node] = Arrays.copyOf(childNonLiteralNodes, nonLiteralCount);
+
+        if ((flags & FLAG_OPTIONAL) != 0 && (flags & FLAG_SUB_TREE_OPTIONAL) != 0)
+            flags |= FLAG_TREE_OPTIONAL;
+
+        this.flags[node] = flags;
+        this.subtreeEnds[node] = child;
+        return child;
+    }
+
+    public Command<C, T> getRoot() {
+        return commands[0];
+    }
+
+    /**
+     * The number of nodes in this tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    long getRevision() {
+        return revision;
+    }
+
+    public ParseResult<C, T> parse(C context, String input) {
+        return parse(context, new InputReader(input));
+    }
+
+    public ParseResult<C, T> parse(C context, InputReader input) {
+        return parse(context, input, ParseMode.FULL);
+    }
+
+    public ParseResult<C, T> parse(C context, String input, ParseMode mode) {
+        return parse(context, new InputReader(input), mode);
+    }
+
+    public ParseResult<C, T> parse(C context, InputReader input, ParseMode mode) {
+        ParseData<C, T> data = new ParseData<>(context, input, mode, commands[0]);
+        parse(data, 0);
+        return data.getResult();
+    }
+
+    void parse(ParseData<C, T> data) {
+        parse(data, 0);
+    }
+
+    /**
+     * Parses the input and only returns the (first) match with the highest priority,
+     * or the failure that got the furthest into the input if there is no match.
+     * @see ParseMode#BEST
+     */
+    public ParseResult<C, T> parseBest(C context, String input) {
+        return parse(context, new InputReader(input), ParseMode.BEST);
+    }
+
+    /**
+     * Parses the input and only returns the (first) match with the highest priority,
+     * or the failure that got the furthest into the input if there is no match.
+     * @see ParseMode#BEST
+     */
+    public ParseResult<C, T> parseBest(C context, InputReader input) {
+        return parse(context, input, ParseMode.BEST);
+    }
+
+    /**
+     * Same as {@link #parseBest(Object, InputReader)}, but only literals and (non-optional) arguments that are
+     * accepted by the filter are parsed.
+     */
+    public ParseResult<C, T> parseBest(C context, InputReader input, ParseFilter<C, T> filter) {
+        ParseData<C, T> data = new ParseData<>(context, input, ParseMode.BEST, commands[0]);
+        data.setFilter(filter);
+        parse(data, 0);
+        return data.getResult();
+    }
+
+    /**
+     * Same as {@link #parseBest(Object, InputReader, ParseFilter)}, but the leading literals of the input have already
+     * been resolved to the given path of literal-commands (e.g. by brigadier), each one being a direct subcommand of the
+     * one before and the first one a direct subcommand of the root.<br>
+     * The tree is not searched for these literals, parsing starts at the subtree of the last literal in the path.
+     * If the input or the tree do not match the path, the whole input is parsed instead.
+     */
+    public ParseResult<C, T> parseBest(C context, InputReader input, List<? extends LiteralCommand<C, T>> literalPath, ParseFilter<C, T> filter) {
+        int start = input.getPosition();
+        ParseData<C, T> data = new ParseData<>(context, input, ParseMode.BEST, commands[0]);
+        data.setFilter(filter);
+
+        int node = 0;
+        for (int i = 0; i < literalPath.size() && node != -1; i++) {
+            if (!isValid(data, node)) return data.getResult();
+
+            // the last literal of the path is parsed normally, the ones before are only followed
+            int position = input.getPosition();
+            int tokenEnd = input.peekTokenEnd();
+            LiteralIndex literalIndex = literalIndexes[node];
+            int child = literalIndex != null ? literalIndex.get(input.getInput(), position, tokenEnd) : -1;
+            if (child == -1 || commands[child] != literalPath.get(i)) {
+                node = -1;
+            } else if (i == literalPath.size() - 1) {
+                parseSubCommand(data, child);
+                return data.getResult();
+            } else {
+                data.pushSegment(commands[child]);
+                input.setPosition(tokenEnd);
+                node = input.read() == ' ' ? child : -1;
+            }
+        }
+
+        input.setPosition(start);
+        return parseBest(context, input, filter);
+    }
+
+    /**
+     * Collects the suggestions for the word at the cursor (starting after the last space before the cursor).<br>
+     * Only the input before the cursor is parsed, and only branches that are consistent with it are visited.
+     */
+    public List<Suggestion> suggest(C context, String input, int cursor) {
+        return suggest(context, new InputReader(input), cursor);
+    }
+
+    /**
+     * Collects the suggestions for the word at the cursor (starting after the last space before the cursor).<br>
+     * Only the input before the cursor is parsed, and only branches that are consistent with it are visited.
+     */
+    public List<Suggestion> suggest(C context, InputReader input, int cursor) {
+        return suggest(context, input, cursor, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Collects the suggestions for the word at the cursor (starting after the last space before the cursor).<br>
+     * Only the input before the cursor is parsed, and only branches that are consistent with it are visited.<br>
+     * Literals are only suggested if they start with the word at the cursor (ignoring case) and in sorted order.
+     * At most <code>limit</code> suggestions are returned.
+     */
+    public List<Suggestion> suggest(C context, InputReader input, int cursor, int limit) {
+        return suggestAsync(context, input, cursor, limit, () -> false).join();
+    }
+
+    /**
+     * Same as {@link #suggest(Object, InputReader, int)}, but the suggestions of argument-parsers are collected
+     * using {@link ArgumentParser#suggestAsync(Object, InputReader)}, so slow parsers don't block the calling thread.
+     */
+    public CompletableFuture<List<Suggestion>> suggestAsync(C context, InputReader input, int cursor) {
+        return suggestAsync(context, input, cursor, Integer.MAX_VALUE, () -> false);
+    }
+
+    /**
+     * Same as {@link #suggest(Object, InputReader, int, int)}, but the suggestions of argument-parsers are collected
+     * using {@link ArgumentParser#suggestAsync(Object, InputReader)}, so slow parsers don't block the calling thread.<br>
+     * The cancellation is checked regularly while parsing, once it returns true the parsing is aborted and the
+     * returned future completes with an empty list.
+     */
+    public CompletableFuture<List<Suggestion>> suggestAsync(C context, InputReader input, int cursor, int limit, BooleanSupplier cancellation) {
+        String string = input.getInput();
+        if (cursor < string.length()) {
+            InputReader truncated = new InputReader(string.substring(0, cursor));
+            truncated.setPosition(Math.min(input.getPosition(), cursor));
+            input = truncated;
+        }
+
+        ParseData<C, T> data = new ParseData<>(context, input, ParseMode.SUGGEST, commands[0]);
+        data.setSuggestionLimit(limit);
+        data.setCancellation(cancellation);
+        parse(data, 0);
+
+        List<CompletableFuture<List<Suggestion>>> pending = data.getSuggestions();
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                .handle((ignored, throwable) -> {
+                    if (cancellation.getAsBoolean()) return Collections.emptyList();
+
+                    Map<String, Suggestion> suggestions = new LinkedHashMap<>();
+                    for (CompletableFuture<List<Suggestion>> future : pending) {
+                        if (future.isCompletedExceptionally()) continue;
+                        for (Suggestion suggestion : future.join()) {
+                            if (suggestions.size() >= limit) break;
+                            suggestions.putIfAbsent(suggestion.getString(), suggestion);
+                        }
+                    }
+                    return new ArrayList<>(suggestions.values());
+                });
+    }
+
+    private void parse(ParseData<C, T> data, int node) {
+        if (!isValid(data, node)) return;
+
+        switch (types[node]) {
+            case TYPE_LITERAL: parseLiteral(data, node); break;
+            case TYPE_ARGUMENT: parseArgument(data, node); break;
+            default: parseCommand(data, node);
+        }
+    }
+
+    private void parseCommand(ParseData<C, T> data, int node) {
+        C context = data.getContext();
+        InputReader input = data.getInput();
+        int inputPosition = input.getPosition();
+        CommandExecutable<C, T> executable = executables[node];
+        if (executable != null && executable.isValid(context, data.getValidationState())) {
+            if (input.peek() == -1)
+                data.addMatch(new ParseMatch<>(executable, context, data.getCurrentSegment()));
+            else if (data.isRecordingFailure(inputPosition))
+                data.addFailure(new ParseFailure<>(inputPosition, "Too many arguments.", data.getCurrentSegment(), Collections.emptyList()));
+        }
+
+        if (types[node] == TYPE_COMMAND || inputPosition == 0) {
+            parseSubCommands(data, node);
+        } else if (input.read() == ' ') {
+            // start of a new token, a parse-session can resume parsing from here
+            int previousFrontier = data.enterFrontier(node);
+            parseSubCommands(data, node);
+            data.exitFrontier(previousFrontier);
+        } else if (subtreeEnds[node] > node + 1) {
+            if ((flags[node] & FLAG_SUB_TREE_OPTIONAL) != 0) {
+                gatherSubTreeExecutables(data, node, subExecutable -> {
+                    data.addMatch(new ParseMatch<>(subExecutable, context, data.getCurrentSegment()));
+                });
+            } else if (data.isRecordingFailure(inputPosition)) {
+                data.addFailure(new ParseFailure<>(inputPosition, "Not enough arguments!", data.getCurrentSegment(), Collections.emptyList()));
+            }
+        }
+    }
+
+    /**
+     * Continues parsing from the given frontier-states at the given position.
+     * @see ParseSession
+     */
+    void parseFrom(ParseData<C, T> data, int position, List<ParseSession.Frontier<C, T>> frontier) {
+        for (ParseSession.Frontier<C, T> state : frontier) {
+            data.getInput().setPosition(position);
+            data.setCurrentSegment(state.getSegment());
+
+            int previousFrontier = data.enterFrontier(state.getNode());
+            parseSubCommands(data, state.getNode());
+            data.exitFrontier(previousFrontier);
+        }
+    }
+
+    private void parseSubCommands(ParseData<C, T> data, int node) {
+        InputReader input = data.getInput();
+        int position = input.getPosition();
+
+        // look up the literal matching the next token, so we don't need to test each literal on its own
+        int literal = -1;
+        boolean parseAllLiterals = true;
+        LiteralIndex literalIndex = literalIndexes[node];
+        if (literalIndex != null) {
+            int tokenEnd = input.peekTokenEnd();
+            if (data.getMode() == ParseMode.SUGGEST && tokenEnd == input.getInput().length() && data.isRecordingFailure(position)) {
+                // only the suggestions for this last token are needed,
+                // so instead of parsing all literals we can find the matching ones with a prefix-search
+                suggestLiterals(data, literalIndex, position, tokenEnd);
+                parseAllLiterals = false;
+            } else {
+                literal = literalIndex.get(input.getInput(), position, tokenEnd);
+
+                // the non-matching literals only produce failures (error-messages and suggestions),
+                // we only need those if nothing matched or if the token might still be incomplete (end of input)
+                parseAllLiterals =
+                        literal == -1 ||
+                        !isValid(data, literal) ||
+                        (data.isSuggesting() && input.getRemaining() == tokenEnd - position);
+            }
+        }
+
+        // the children are parsed in the order they were added, the first match wins ties between equal priorities
+        if (!parseAllLiterals || !data.isRecordingFailure(position)) {
+            for (int child : nonLiteralChildren[node]) {
+                if (literal != -1 && literal < child) {
+                    parseSubCommand(data, literal);
+                    literal = -1;
+                }
+                parseSubCommand(data, child);
+            }
+            if (literal != -1) parseSubCommand(data, literal);
+            return;
+        }
+
+        boolean literalFailure = false;
+        int end = subtreeEnds[node];
+        for (int child = node + 1; child < end; child = subtreeEnds[child]) {
+            if (types[child] == TYPE_LITERAL && child != literal) {
+                if (!data.isRecordingFailure(position)) continue;
+
+                // without suggestions, all non-matching literals would produce the same failure, so one is enough
+                if (!data.isSuggesting()) {
+                    if (literalFailure || !isValid(data, child)) continue;
+                    literalFailure = true;
+                }
+            }
+            parseSubCommand(data, child);
+        }
+    }
+
+    private void suggestLiterals(ParseData<C, T> data, LiteralIndex literalIndex, int position, int tokenEnd) {
+        String input = data.getInput().getInput();
+        int limit = data.getSuggestionLimit();
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = literalIndex.findFirst(input, position, tokenEnd); i < literalIndex.size(); i++) {
+            if (suggestions.size() >= limit || !literalIndex.startsWith(i, input, position, tokenEnd)) break;
+            if (!isValid(data, literalIndex.getSortedNode(i))) continue;
+            suggestions.add(literalIndex.getSortedSuggestion(i));
+        }
+
+        if (suggestions.isEmpty()) return;
+        data.addFailure(new ParseFailure<>(
+                position,
+                String.format("Unknown or incomplete command, got '%s' but expected something else.", data.getInput().view(position, tokenEnd)),
+                data.getCurrentSegment(),
+                suggestions
+        ));
+    }
+
+    private void parseSubCommand(ParseData<C, T> data, int node) {
+        if (data.isPruned(maxPriorities[node]) || data.isCancelled()) return;
+
+        ParseFilter<C, T> filter = data.getFilter();
+        if (filter != null && types[node] != TYPE_COMMAND && (flags[node] & FLAG_OPTIONAL) == 0 &&
+                !filter.test(commands[node], data.getInput().getPosition())) return;
+
+        try {
+            data.pushSegment(commands[node]);
+            parse(data, node);
+        } finally {
+            data.popSegment();
+        }
+    }
+
+    private void parseLiteral(ParseData<C, T> data, int node) {
+        String literal = literals[node];
+        InputReader input = data.getInput();
+        int position = input.getPosition();
+        int tokenEnd = input.peekTokenEnd();
+        if (tokenEnd - position != literal.length() || !input.regionEquals(position, literal)) {
+            if (!data.isRecordingFailure(position)) return;
+            data.addFailure(new ParseFailure<>(
+                    position,
+                    String.format("Unknown or incomplete command, got '%s' but expected something else.", input.view(position, tokenEnd)),
+                    data.getCurrentSegment(),
+                    data.isSuggesting() ?
+                            Collections.singletonList(new SimpleSuggestion(literal)) :
+                            Collections.emptyList()
+            ));
+        } else {
+            input.setPosition(tokenEnd);
+            parseCommand(data, node);
+        }
+    }
+
+    private void parseArgument(ParseData<C, T> data, int node) {
+        C context = data.getContext();
+
+        ArgumentParser<C, ?> argumentParser = argumentParsers[node];
+        InputReader input = data.getInput();
+        int position = input.getPosition();
+
+        int matchCount = data.getFoundMatchCount();
+
+        // a parse-session can not resume behind an argument that might depend on more than its own token,
+        // or behind an optional argument, since skipping it depends on whether anything behind it matched
+        if ((flags[node] & FLAG_OPTIONAL) != 0 || !isTokenLocal(argumentParser, input))
+            data.limitResumePosition(position);
+
+        try {
+            Object argument = data.parseArgument(argumentParser);
+
+            if (argument instanceof ArgumentMismatch) {
+                // the exception of a mismatch (and its message) is only created if the failure is recorded
+                input.setPosition(position); // reset position for suggestions
+                if (data.isRecordingFailure(position))
+                    addArgumentFailure(data, argumentParser, ((ArgumentMismatch) argument).createException().getMessage(), false);
+            } else {
+                // sanity check position
+                if (input.getPosition() < position) {
+                    throw new CommandSetupException("The ArgumentParser '" + argumentParser + "' altered the InputReader in an illegal way. (position changed backwards)");
+                }
+
+                // check if full token was consumed
+                int next = input.peek();
+                if (next != -1 && next != ' ') {
+                    throw new CommandSetupException("The ArgumentParser '" + argumentParser + "' did not consume the full token. (expected next char to be a space or end of string)");
+                }
+
+                // if we reached the end of input, check if there is any additional suggestions and add an extra failure if there are any
+                if (next == -1 && data.isSuggesting() && data.isRecordingFailure(position)) {
+                    input.setPosition(position); // reset position for suggestions
+                    addArgumentFailure(data, argumentParser, "Alternative Usages", true);
+                    input.readRemaining(); // reset position
+                }
+
+                data.setCurrentValue(argument);
+                parseCommand(data, node);
+            }
+        } catch (CommandParseException ex) {
+            input.setPosition(position); // reset position for suggestions
+            if (data.isRecordingFailure(position))
+                addArgumentFailure(data, argumentParser, ex.getMessage(), false);
+        }
+
+        // skip argument if the argument is optional and no match has been added
+        if ((flags[node] & FLAG_OPTIONAL) != 0 && matchCount == data.getFoundMatchCount()) {
+            data.setCurrentValue(null);
+            input.setPosition(Math.max(0, position - 1));
+            parseCommand(data, node);
+        }
+    }
+
+    /**
+     * Returns true if the argument-parser only reads the token at the current position,
+     * so its result can not change if only the input after this token changes.
+     */
+    private static boolean isTokenLocal(ArgumentParser<?, ?> argumentParser, InputReader input) {
+        if (!(argumentParser instanceof SimpleArgumentParser)) return false;
+        SimpleArgumentParser<?, ?> simpleArgumentParser = (SimpleArgumentParser<?, ?>) argumentParser;
+        if (simpleArgumentParser.isGreedy()) return false;
+        return !simpleArgumentParser.isAllowQuoted() || input.peek() != '"';
+    }
+
+    /**
+     * Adds a failure at the current position, with the suggestions of the argument-parser if suggestions are collected.
+     * In {@link ParseMode#SUGGEST} the parser is asked asynchronously and only added as pending suggestions
+     * if it did not complete immediately.
+     */
+    private void addArgumentFailure(ParseData<C, T> data, ArgumentParser<C, ?> argumentParser, String reason, boolean onlyWithSuggestions) {
+        C context = data.getContext();
+        InputReader input = data.getInput();
+        int position = input.getPosition();
+
+        List<Suggestion> suggestions = Collections.emptyList();
+        if (data.getMode() == ParseMode.SUGGEST) {
+            // the parser might still use the reader after we continued parsing, so it gets its own
+            InputReader suggestionInput = new InputReader(input.getInput());
+            suggestionInput.setPosition(position);
+            CompletableFuture<List<Suggestion>> future = argumentParser.suggestAsync(context, suggestionInput);
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                data.addSuggestions(future);
+                return;
+            }
+            suggestions = future.join();
+        } else if (data.isSuggesting()) {
+            suggestions = argumentParser.suggest(context, input);
+        }
+
+        if (onlyWithSuggestions && suggestions.isEmpty()) return;
+        data.addFailure(new ParseFailure<>(position, reason, data.getCurrentSegment(), suggestions));
+    }
+
+    /**
+     * Collects the valid executables of all subcommands (excluding the node itself) of the given node.
+     */
+    private void gatherSubTreeExecutables(ParseData<C, T> data, int node, Consumer<CommandExecutable<C, T>> consumer) {
+        C context = data.getContext();
+        int end = subtreeEnds[node];
+        for (int i = node + 1; i < end; i++) {
+            CommandExecutable<C, T> executable = executables[i];
+            if (executable != null && executable.isValid(context, data.getValidationState()))
+                consumer.accept(executable);
+        }
+    }
+
+    /**
+     * Returns all commands of this tree that are valid for the given context (see {@link Command#isValid(Object)}).<br>
+     * This tests all nodes in a single pass, so each executable is only tested once.
+     */
+    public Set<Command<C, T>> getValidCommands(C context) {
+        boolean[] valid = new boolean[size];
+        Set<Command<C, T>> validCommands = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Object, Object> validationState = new HashMap<>();
+
+        // in reverse pre-order all children are visited before their parent
+        for (int node = size - 1; node >= 0; node--) {
+            CommandExecutable<C, T> executable = executables[node];
+            boolean nodeValid = executable != null && executable.isValid(context, validationState);
+
+            int end = subtreeEnds[node];
+            for (int child = node + 1; !nodeValid && child < end; child = subtreeEnds[child])
+                nodeValid = valid[child];
+
+            if (nodeValid) {
+                valid[node] = true;
+                validCommands.add(commands[node]);
+            }
+        }
+
+        return Collections.unmodifiableSet(validCommands);
+    }
+
+    /**
+     * Returns true if any of the given commands of this tree is valid for the given context (see {@link Command#isValid(Object)}).<br>
+     * All commands are tested together, so each executable is only tested once.
+     */
+    public boolean isAnyValid(C context, Collection<? extends Command<C, T>> commands) {
+        Map<Command<C, T>, Integer> nodeIndexes = getNodeIndexes();
+        byte[] validity = new byte[size];
+        Map<Object, Object> validationState = new HashMap<>();
+
+        for (Command<C, T> command : commands) {
+            Integer node = nodeIndexes.get(command);
+            if (node != null ? isValid(validity, node, context, validationState) : command.isValid(context))
+                return true;
+        }
+        return false;
+    }
+
+    private Map<Command<C, T>, Integer> getNodeIndexes() {
+        Map<Command<C, T>, Integer> nodeIndexes = this.nodeIndexes;
+        if (nodeIndexes == null) {
+            nodeIndexes = new IdentityHashMap<>(size);
+            for (int node = size - 1; node >= 0; node--)
+                nodeIndexes.put(commands[node], node);
+            this.nodeIndexes = nodeIndexes;
+        }
+        return nodeIndexes;
+    }
+
+    /**
+     * Returns true if any executable in the subtree of the given node is valid for the context of the parse.<br>
+     * The validity of each node is only computed once per parse, from the validity of its children.
+     */
+    private boolean isValid(ParseData<C, T> data, int node) {
+        return isValid(data.getNodeValidity(size), node, data.getContext(), data.getValidationState());
+    }
+
+    private boolean isValid(byte[] validity, int node, C context, Map<Object, Object> validationState) {
+        if (validity[node] != VALIDITY_UNKNOWN) return validity[node] == VALIDITY_VALID;
+
+        CommandExecutable<C, T> executable = executables[node];
+        boolean valid = executable != null && executable.isValid(context, validationState);
+
+        int end = subtreeEnds[node];
+        for (int child = node + 1; !valid && child < end; child = subtreeEnds[child])
+            valid = isValid(validity, child, context, validationState);
+
+        validity[node] = valid ? VALIDITY_VALID : VALIDITY_INVALID;
+        return valid;
+    }
+
+}
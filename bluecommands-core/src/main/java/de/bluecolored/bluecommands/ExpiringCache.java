@@ -0,0 +1,154 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * A bounded, thread-safe cache whose entries expire after a fixed time.<br>
+ * Reads and writes don't lock, instead of keeping a strict access-order the cache evicts the least recently used
+ * entries in batches once it has grown beyond its maximum size, so it can briefly hold a few more entries than that.
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maximumSize;
+    private final long expireAfterNanos;
+    private final Map<K, CacheEntry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    /**
+     * @param maximumSize the maximum number of cached entries
+     * @param expireAfter the time after which a cached entry is discarded
+     */
+    public ExpiringCache(int maximumSize, Duration expireAfter) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("maximumSize has to be greater than 0");
+        this.maximumSize = maximumSize;
+        this.expireAfterNanos = expireAfter.toNanos();
+    }
+
+    /**
+     * Returns the cached value, or null if there is none or if it has expired.
+     */
+    public @Nullable V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) return null;
+
+        long now = System.nanoTime();
+        if (now - entry.created > expireAfterNanos) {
+            entries.remove(key, entry);
+            return null;
+        }
+
+        entry.lastAccess = now;
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, new CacheEntry<>(value, System.nanoTime()));
+        if (entries.size() > maximumSize) evict();
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries with a key that matches the filter.
+     */
+    public void removeIf(Predicate<? super K> keyFilter) {
+        entries.keySet().removeIf(keyFilter);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Removes all expired entries and then the least recently used entries until the cache is filled to about 90%,
+     * so not every following put has to evict again.<br>
+     * Only one thread evicts at a time, other threads don't wait for it.
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) return;
+        try {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> now - entry.created > expireAfterNanos);
+
+            int targetSize = maximumSize - maximumSize / 10;
+            if (entries.size() <= targetSize) return;
+
+            // the access-times are copied, so concurrent reads don't change the order while sorting
+            List<EvictionCandidate<K, V>> candidates = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> candidates.add(new EvictionCandidate<>(key, entry, now - entry.lastAccess)));
+            candidates.sort(Comparator.comparingLong((EvictionCandidate<K, V> candidate) -> candidate.age).reversed());
+            for (int i = 0, count = candidates.size() - targetSize; i < count; i++) {
+                EvictionCandidate<K, V> candidate = candidates.get(i);
+                entries.remove(candidate.key, candidate.entry);
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class CacheEntry<V> {
+
+        private final V value;
+        private final long created;
+
+        // only approximate, concurrent reads may overwrite each other
+        private volatile long lastAccess;
+
+        private CacheEntry(V value, long created) {
+            this.value = value;
+            this.created = created;
+            this.lastAccess = created;
+        }
+
+    }
+
+    private static final class EvictionCandidate<K, V> {
+
+        private final K key;
+        private final CacheEntry<V> entry;
+        private final long age;
+
+        private EvictionCandidate(K key, CacheEntry<V> entry, long age) {
+            this.key = key;
+            this.entry = entry;
+            this.age = age;
+        }
+
+    }
+
+}
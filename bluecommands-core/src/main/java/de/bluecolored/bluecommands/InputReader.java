@@ -99,6 +99,49 @@ public class InputReader extends Reader {
         return null;
     }
 
+    /**
+     * Returns the (exclusive) end-index of the token starting at the current reading position.
+     * A token ends at the first whitespace-character (same as <code>\s</code> in a regex) or at the end of the input.
+     */
+    public int peekTokenEnd() {
+        int end = position;
+        while (end < length && !isWhitespace(input.charAt(end))) end++;
+        return end;
+    }
+
+    /**
+     * Returns a view (no copy) of the token starting at the current reading position.
+     * @see #peekTokenEnd()
+     */
+    public CharSequence peekToken() {
+        return view(position, peekTokenEnd());
+    }
+
+    /**
+     * Reads and consumes the token starting at the current reading position and returns a view (no copy) of it.
+     * @see #peekTokenEnd()
+     */
+    public CharSequence readToken() {
+        int start = position;
+        position = peekTokenEnd();
+        return view(start, position);
+    }
+
+    /**
+     * Returns true if the input contains the given string at the given position.
+     */
+    public boolean regionEquals(int position, String string) {
+        return input.regionMatches(position, string, 0, string.length());
+    }
+
+    /**
+     * Returns a view (no copy) of the input between the start (inclusive) and end (exclusive) index.
+     */
+    public CharSequence view(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        return new InputView(input, start, end);
+    }
+
     @Override
     public boolean ready() {
         return true;
@@ -162,4 +205,43 @@ public class InputReader extends Reader {
     @Override
     public void close() {}
 
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static final class InputView implements CharSequence {
+
+        private final String input;
+        private final int start, end;
+
+        private InputView(String input, int start, int end) {
+            this.input = input;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            Objects.checkIndex(index, end - start);
+            return input.charAt(start + index);
+        }
+
+        @Override
+        public @NotNull CharSequence subSequence(int start, int end) {
+            Objects.checkFromToIndex(start, end, this.end - this.start);
+            return new InputView(input, this.start + start, this.start + end);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return input.substring(start, end);
+        }
+
+    }
+
 }
@@ -24,12 +24,9 @@
  */
 package de.bluecolored.bluecommands;
 
-import java.util.Collections;
-import java.util.regex.MatchResult;
-import java.util.regex.Pattern;
+import java.util.List;
 
 public class LiteralCommand<C, T> extends Command<C, T> {
-    private static final Pattern PATTERN = Pattern.compile("\\S*");
 
     private final String literal;
 
@@ -41,31 +38,15 @@ public class LiteralCommand<C, T> extends Command<C, T> {
         return literal;
     }
 
-    @Override
-    void parse(ParseData<C, T> data) {
-        C context = data.getContext();
-        if (!isValid(context)) return;
-
-        InputReader input = data.getInput();
-        MatchResult match = input.read(PATTERN);
-        if (match == null || !match.group().equals(literal)) {
-            data.getResult().addFailure(new ParseFailure<>(
-                    data.getCurrentSegment().getPosition(),
-                    match == null ?
-                            "Unknown or incomplete command." :
-                            String.format("Unknown or incomplete command, got '%s' but expected something else.", match.group()),
-                    data.getCommandStack(),
-                    Collections.singletonList(new SimpleSuggestion(literal))
-            ));
-        } else {
-            super.parse(data);
-        }
-    }
-
     @Override
     public boolean isEqual(Command<C, T> other) {
         if (getClass() != other.getClass()) return false;
         return ((LiteralCommand<C, T>) other).literal.equals(literal);
     }
 
+    @Override
+    public Object getMergeKey() {
+        return List.of(getClass(), literal);
+    }
+
 }
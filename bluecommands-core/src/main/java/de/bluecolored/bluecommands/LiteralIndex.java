@@ -0,0 +1,168 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * An immutable hash-index from literals to node-indexes, that can be queried with a region of the input
+ * without creating a substring.<br>
+ * Additionally, the literals are kept in a (case-insensitively) sorted array, so all literals starting with a prefix
+ * can be found with a binary-search and are already in order.
+ */
+final class LiteralIndex {
+
+    private static final Comparator<String> SORT_ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final String[] literals;
+    private final int[] nodes;
+    private final int mask;
+
+    private final String[] sortedLiterals;
+    private final int[] sortedNodes;
+    private final Suggestion[] sortedSuggestions;
+
+    LiteralIndex(String[] literals, int[] nodes) {
+        int capacity = Integer.highestOneBit(Math.max(literals.length * 2 - 1, 1)) << 1;
+        this.literals = new String[capacity];
+        this.nodes = new int[capacity];
+        this.mask = capacity - 1;
+
+        Integer[] unique = new Integer[literals.length];
+        int uniqueCount = 0;
+
+        Arrays.fill(this.nodes, -1);
+        for (int i = 0; i < literals.length; i++) {
+            int slot = spread(literals[i].hashCode()) & mask;
+            while (this.nodes[slot] != -1) {
+                if (this.literals[slot].equals(literals[i])) break; // first one wins
+                slot = (slot + 1) & mask;
+            }
+            if (this.nodes[slot] != -1) continue;
+            this.literals[slot] = literals[i];
+            this.nodes[slot] = nodes[i];
+            unique[uniqueCount++] = i;
+        }
+
+        Integer[] sorted = Arrays.copyOf(unique, uniqueCount);
+        Arrays.sort(sorted, (a, b) -> SORT_ORDER.compare(literals[a], literals[b]));
+        this.sortedLiterals = new String[uniqueCount];
+        this.sortedNodes = new int[uniqueCount];
+        this.sortedSuggestions = new Suggestion[uniqueCount];
+        for (int i = 0; i < uniqueCount; i++) {
+            this.sortedLiterals[i] = literals[sorted[i]];
+            this.sortedNodes[i] = nodes[sorted[i]];
+            this.sortedSuggestions[i] = new SimpleSuggestion(literals[sorted[i]]);
+        }
+    }
+
+    /**
+     * Returns the node of the literal equal to the input between start (inclusive) and end (exclusive),
+     * or -1 if there is none.
+     */
+    int get(String input, int start, int end) {
+        int length = end - start;
+
+        // same as String#hashCode()
+        int hash = 0;
+        for (int i = start; i < end; i++)
+            hash = 31 * hash + input.charAt(i);
+
+        int slot = spread(hash) & mask;
+        while (nodes[slot] != -1) {
+            String literal = literals[slot];
+            if (literal.length() == length && input.regionMatches(start, literal, 0, length))
+                return nodes[slot];
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * The number of (unique) literals in this index.
+     */
+    int size() {
+        return sortedLiterals.length;
+    }
+
+    /**
+     * Returns the sorted-index of the first literal that starts with the input between start (inclusive)
+     * and end (exclusive), ignoring case. All following literals starting with it come directly after, so they can be
+     * iterated until {@link #startsWith(int, String, int, int)} returns false.
+     */
+    int findFirst(String input, int start, int end) {
+        int low = 0, high = sortedLiterals.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareIgnoreCase(sortedLiterals[mid], input, start, end) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns true if the literal at the sorted-index starts with the input between start (inclusive)
+     * and end (exclusive), ignoring case.
+     */
+    boolean startsWith(int sortedIndex, String input, int start, int end) {
+        String literal = sortedLiterals[sortedIndex];
+        int length = end - start;
+        return literal.length() >= length && literal.regionMatches(true, 0, input, start, length);
+    }
+
+    int getSortedNode(int sortedIndex) {
+        return sortedNodes[sortedIndex];
+    }
+
+    Suggestion getSortedSuggestion(int sortedIndex) {
+        return sortedSuggestions[sortedIndex];
+    }
+
+    /**
+     * Same as {@link String#CASE_INSENSITIVE_ORDER}, but compares with a region of the input.
+     */
+    private static int compareIgnoreCase(String literal, String input, int start, int end) {
+        int length = Math.min(literal.length(), end - start);
+        for (int i = 0; i < length; i++) {
+            char c1 = literal.charAt(i);
+            char c2 = input.charAt(start + i);
+            if (c1 == c2) continue;
+            c1 = Character.toUpperCase(c1);
+            c2 = Character.toUpperCase(c2);
+            if (c1 == c2) continue;
+            c1 = Character.toLowerCase(c1);
+            c2 = Character.toLowerCase(c2);
+            if (c1 != c2) return c1 - c2;
+        }
+        return literal.length() - (end - start);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+}
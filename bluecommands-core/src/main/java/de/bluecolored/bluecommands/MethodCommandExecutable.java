@@ -27,8 +27,12 @@ package de.bluecolored.bluecommands;
 import de.bluecolored.bluecommands.annotations.Argument;
 import de.bluecolored.bluecommands.annotations.Priority;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.Map;
 import java.util.function.Function;
@@ -41,51 +45,34 @@ public class MethodCommandExecutable<C> implements CommandExecutable<C, Object>
 
     private final BlueCommands<C> blueCommands;
 
+    private final ParameterBinding<C>[] parameterBindings;
+    private final MethodHandle invoker;
+
     public MethodCommandExecutable(Method method, Object holder, BlueCommands<C> blueCommands) {
-        this.method = method;
+        this(new MethodModel<>(method, blueCommands), holder, blueCommands);
+    }
+
+    MethodCommandExecutable(MethodModel<C> model, Object holder, BlueCommands<C> blueCommands) {
+        this.method = model.method;
         this.holder = holder;
         this.blueCommands = blueCommands;
-
-        this.method.setAccessible(true);
-
-        Priority priority = method.getAnnotation(Priority.class);
-        this.priority = priority != null ? priority.value() : 0;
+        this.priority = model.priority;
+        this.parameterBindings = model.parameterBindings;
+        this.invoker = model.bindInvoker(holder);
     }
 
     @Override
     public Object execute(C context, Map<String, Object> arguments) {
-        Parameter[] parameters = method.getParameters();
-        Object[] parameterValues = new Object[parameters.length];
-        for (int i = 0; i < parameters.length; i++){
-            Parameter parameter = parameters[i];
-
-            Argument argument = parameter.getAnnotation(Argument.class);
-            if (argument != null) {
-                parameterValues[i] = arguments.get(argument.value());
-                continue;
-            }
-
-            // supply by context
-            Function<C, ?> contextResolver = blueCommands.getContextResolver(parameter.getType());
-            if (contextResolver != null) {
-                parameterValues[i] = contextResolver.apply(context);
-                continue;
-            }
-
-            // supply context itself
-            if (parameter.getType().isInstance(context)){
-                parameterValues[i] = context;
-                continue;
-            }
-
-            // still here? error!
-            throw new CommandSetupException("Failed to resolve parameter for command execution.\nMethod: " + method + "\nParameter: " + parameter);
+        Object[] parameterValues = new Object[parameterBindings.length];
+        for (int i = 0; i < parameterBindings.length; i++) {
+            parameterValues[i] = parameterBindings[i].resolve(context, arguments);
         }
 
         try {
-            return method.invoke(holder, parameterValues);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new CommandSetupException("Failed to invoke method for command execution!\nMethod:" + method, e);
+            return (Object) invoker.invokeExact(parameterValues);
+        } catch (Throwable e) {
+            // same exception (and cause) as when invoking the method using reflection
+            throw new CommandSetupException("Failed to invoke method for command execution!\nMethod:" + method, new InvocationTargetException(e));
         }
     }
 
@@ -99,6 +86,11 @@ public class MethodCommandExecutable<C> implements CommandExecutable<C, Object>
         return blueCommands.checkContext(context, method);
     }
 
+    @Override
+    public boolean isValid(C context, Map<Object, Object> sharedState) {
+        return blueCommands.checkContext(context, method, sharedState);
+    }
+
     public Method getMethod() {
         return method;
     }
@@ -107,4 +99,93 @@ public class MethodCommandExecutable<C> implements CommandExecutable<C, Object>
         return holder;
     }
 
+    /**
+     * Everything about a command-method that does not depend on the holder-instance,
+     * so it can be created once and shared by the executables of all holders of the same class.
+     */
+    static class MethodModel<C> {
+
+        private final Method method;
+        private final int priority;
+        private final ParameterBinding<C>[] parameterBindings;
+        private final MethodHandle invoker;
+
+        MethodModel(Method method, BlueCommands<C> blueCommands) {
+            this.method = method;
+            this.method.setAccessible(true);
+
+            Priority priority = method.getAnnotation(Priority.class);
+            this.priority = priority != null ? priority.value() : 0;
+
+            this.parameterBindings = createParameterBindings(method, blueCommands);
+            this.invoker = createInvoker(method);
+        }
+
+        Method getMethod() {
+            return method;
+        }
+
+        private MethodHandle bindInvoker(Object holder) {
+            if (Modifier.isStatic(method.getModifiers())) return invoker;
+            return invoker.bindTo(holder);
+        }
+
+        /**
+         * Decides once for each parameter of the method where its value is coming from when the command is executed.
+         */
+        private static <C> ParameterBinding<C>[] createParameterBindings(Method method, BlueCommands<C> blueCommands) {
+            Parameter[] parameters = method.getParameters();
+            @SuppressWarnings("unchecked")
+            ParameterBinding<C>[] bindings = (ParameterBinding<C>[]) new ParameterBinding<?>[parameters.length];
+            for (int i = 0; i < parameters.length; i++){
+                Parameter parameter = parameters[i];
+
+                Argument argument = parameter.getAnnotation(Argument.class);
+                if (argument != null) {
+                    String argumentId = argument.value();
+                    bindings[i] = (context, arguments) -> arguments.get(argumentId);
+                    continue;
+                }
+
+                // the context-resolver is looked up on execution, so resolvers that are registered later are used as well
+                Class<?> type = parameter.getType();
+                bindings[i] = (context, arguments) -> {
+                    // supply by context
+                    Function<C, ?> contextResolver = blueCommands.getContextResolver(type);
+                    if (contextResolver != null) return contextResolver.apply(context);
+
+                    // supply context itself
+                    if (type.isInstance(context)) return context;
+
+                    // still here? error!
+                    throw new CommandSetupException("Failed to resolve parameter for command execution.\nMethod: " + method + "\nParameter: " + parameter);
+                };
+            }
+            return bindings;
+        }
+
+        /**
+         * Creates a method-handle for the method taking all parameters as one Object[] and returning an Object.<br>
+         * If the method is not static, the handle takes the holder as an additional first parameter, see {@link #bindInvoker(Object)}.
+         */
+        private static MethodHandle createInvoker(Method method) {
+            try {
+                MethodHandle handle = MethodHandles.lookup().unreflect(method)
+                        .asSpreader(Object[].class, method.getParameterCount());
+
+                if (Modifier.isStatic(method.getModifiers()))
+                    return handle.asType(MethodType.methodType(Object.class, Object[].class));
+
+                return handle.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new CommandSetupException("Failed to access method for command execution!\nMethod:" + method, e);
+            }
+        }
+
+    }
+
+    private interface ParameterBinding<C> {
+        Object resolve(C context, Map<String, Object> arguments);
+    }
+
 }
@@ -24,21 +24,61 @@
  */
 package de.bluecolored.bluecommands;
 
+import de.bluecolored.bluecommands.parsers.ArgumentParser;
+import org.jetbrains.annotations.Nullable;
+
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
 
 public class ParseData<C, T> {
 
     private final C context;
     private final InputReader input;
+    private final ParseMode mode;
     private final ParseResult<C, T> result;
-    private final LinkedList<ParseSegment<C, T>> segments;
+    private ParseSegment<C, T> currentSegment;
+
+    private final int suggestionPosition;
+    private final List<CompletableFuture<List<Suggestion>>> suggestions;
+    private int suggestionLimit = Integer.MAX_VALUE;
+    private BooleanSupplier cancellation = () -> false;
+    private @Nullable ParseFilter<C, T> filter;
+
+    // only used when parsing for a ParseSession
+    private @Nullable NavigableMap<Integer, List<ParseSession.Frontier<C, T>>> frontiers;
+    private int activeFrontierPosition = -1;
+    private int[] failureFrontierPositions;
+    private int resumePositionLimit = Integer.MAX_VALUE;
+
+    // results of the argument-parsers, so the same parser doesn't need to parse the same position twice
+    private @Nullable Map<ParsedArgumentKey, ParsedArgument> parsedArguments;
+
+    // the validity of each node of the compiled tree for the context, see CompiledCommandTree#isValid
+    private byte @Nullable [] nodeValidity;
+
+    // shared by all validity-checks of this parse, see CommandExecutable#isValid(Object, Map)
+    private @Nullable Map<Object, Object> validationState;
+
+    private int foundMatchCount = 0;
+    private int furthestFailurePosition = -1;
+    private int bestPriority = Integer.MIN_VALUE;
 
     public ParseData(C context, InputReader input, Command<C, T> initialSegment) {
+        this(context, input, ParseMode.FULL, initialSegment);
+    }
+
+    public ParseData(C context, InputReader input, ParseMode mode, Command<C, T> initialSegment) {
         this.context = context;
         this.input = input;
+        this.mode = mode;
         this.result = new ParseResult<>(context, input.getInput());
-        this.segments = new LinkedList<>();
-        pushSegment(initialSegment);
+        this.currentSegment = new ParseSegment<>(initialSegment, input.getPosition());
+
+        this.suggestionPosition = mode == ParseMode.SUGGEST ?
+                Math.max(input.getPosition(), input.getInput().lastIndexOf(' ') + 1) :
+                -1;
+        this.suggestions = mode == ParseMode.SUGGEST ? new ArrayList<>() : Collections.emptyList();
     }
 
     public C getContext() {
@@ -50,42 +90,307 @@ public class ParseData<C, T> {
     }
 
     public Map<String, Object> getArguments() {
-        synchronized (segments) {
-            Map<String, Object> arguments = new HashMap<>();
-            for (ParseSegment<C, T> segment : segments) {
-                if (segment.getCommand() instanceof ArgumentCommand) {
-                    ArgumentCommand<?, ?> argumentCommand = (ArgumentCommand<?, ?>) segment.getCommand();
-                    arguments.put(argumentCommand.getArgumentId(), segment.getValue());
-                }
-            }
-            return Collections.unmodifiableMap(arguments);
-        }
+        return currentSegment.collectArguments();
     }
 
     public List<ParseSegment<C, T>> getCommandStack() {
-        synchronized (segments) {
-            return List.copyOf(segments);
-        }
+        return currentSegment.toCommandStack();
+    }
+
+    public ParseMode getMode() {
+        return mode;
     }
 
     public ParseResult<C, T> getResult() {
         return result;
     }
 
+    /**
+     * Returns true if suggestions should be collected.
+     */
+    public boolean isSuggesting() {
+        return mode == ParseMode.FULL || mode == ParseMode.SUGGEST;
+    }
+
+    /**
+     * Returns true if a failure at the given position would be recorded,
+     * so the (possibly expensive) creation of the failure can be skipped otherwise.
+     */
+    public boolean isRecordingFailure(int position) {
+        switch (mode) {
+            case FULL: return true;
+            case SUGGEST: return position == suggestionPosition;
+            default: return result.getMatchCount() == 0 && position > furthestFailurePosition;
+        }
+    }
+
+    /**
+     * The maximum number of suggestions that are needed.
+     */
+    int getSuggestionLimit() {
+        return suggestionLimit;
+    }
+
+    void setSuggestionLimit(int suggestionLimit) {
+        this.suggestionLimit = suggestionLimit;
+    }
+
+    /**
+     * All suggestions that have been collected in {@link ParseMode#SUGGEST}, including the ones that are not
+     * completed yet.
+     */
+    List<CompletableFuture<List<Suggestion>>> getSuggestions() {
+        return suggestions;
+    }
+
+    void addSuggestions(CompletableFuture<List<Suggestion>> suggestions) {
+        this.suggestions.add(suggestions);
+    }
+
+    /**
+     * Returns true if the parsing has been cancelled and should be aborted.
+     */
+    public boolean isCancelled() {
+        return cancellation.getAsBoolean();
+    }
+
+    void setCancellation(BooleanSupplier cancellation) {
+        this.cancellation = cancellation;
+    }
+
+    @Nullable ParseFilter<C, T> getFilter() {
+        return filter;
+    }
+
+    void setFilter(@Nullable ParseFilter<C, T> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * The number of matches that have been found so far, including the ones that have not been recorded
+     * (depending on the {@link ParseMode}).
+     */
+    int getFoundMatchCount() {
+        return foundMatchCount;
+    }
+
+    /**
+     * Returns true if a (sub-)tree with the given highest priority can be skipped,
+     * because it can not produce a better match than the one already recorded.
+     */
+    public boolean isPruned(int maxPriority) {
+        return mode == ParseMode.BEST && result.getMatchCount() > 0 && maxPriority <= bestPriority;
+    }
+
+    void addMatch(ParseMatch<C, T> match) {
+        foundMatchCount++;
+        if (mode == ParseMode.SUGGEST) return;
+
+        if (mode == ParseMode.BEST) {
+            if (isPruned(match.getPriority())) return;
+            result.clearMatches();
+            bestPriority = match.getPriority();
+        }
+
+        result.addMatch(match);
+        if (mode != ParseMode.FULL) result.clearFailures();
+    }
+
+    void addFailure(ParseFailure<C, T> failure) {
+        if (mode == ParseMode.SUGGEST) {
+            if (isRecordingFailure(failure.getPosition()) && !failure.getSuggestions().isEmpty()) {
+                result.addFailure(failure);
+                suggestions.add(CompletableFuture.completedFuture(failure.getSuggestions()));
+            }
+            return;
+        }
+
+        if (mode != ParseMode.FULL) {
+            if (!isRecordingFailure(failure.getPosition())) return;
+            result.clearFailures();
+            furthestFailurePosition = failure.getPosition();
+        }
+        result.addFailure(failure);
+        if (frontiers != null) addFailureFrontierPosition(activeFrontierPosition);
+    }
+
+    /**
+     * Adds a failure of a previous parse (of a {@link ParseSession}), together with the position of the frontier-state
+     * it has been created in.
+     */
+    void addFailure(ParseFailure<C, T> failure, int frontierPosition) {
+        result.addFailure(failure);
+        addFailureFrontierPosition(frontierPosition);
+    }
+
+    /**
+     * Returns the position of the (innermost) frontier-state that the failure with the given index has been created in,
+     * or -1 if it has not been created in a frontier-state.
+     */
+    int getFailureFrontierPosition(int failureIndex) {
+        return failureFrontierPositions[failureIndex];
+    }
+
+    private void addFailureFrontierPosition(int frontierPosition) {
+        int index = result.getFailureCount() - 1;
+        if (index >= failureFrontierPositions.length)
+            failureFrontierPositions = Arrays.copyOf(failureFrontierPositions, Math.max(16, index * 2));
+        failureFrontierPositions[index] = frontierPosition;
+    }
+
     public ParseSegment<C, T> getCurrentSegment() {
-        return segments.getLast();
+        return currentSegment;
     }
 
-    public void pushSegment(Command<C, T> command) {
-        synchronized (segments) {
-            segments.addLast(new ParseSegment<>(command, input.getPosition()));
+    void setCurrentSegment(ParseSegment<C, T> currentSegment) {
+        this.currentSegment = currentSegment;
+    }
+
+    /**
+     * Starts recording the frontier-states and non-local positions for a {@link ParseSession},
+     * starting with the given already known frontier-states.
+     */
+    void recordFrontiers(NavigableMap<Integer, List<ParseSession.Frontier<C, T>>> frontiers) {
+        this.frontiers = frontiers;
+        this.failureFrontierPositions = new int[16];
+    }
+
+    @Nullable NavigableMap<Integer, List<ParseSession.Frontier<C, T>>> getFrontiers() {
+        return frontiers;
+    }
+
+    /**
+     * The highest position a {@link ParseSession} can resume parsing from.
+     */
+    int getResumePositionLimit() {
+        return resumePositionLimit;
+    }
+
+    /**
+     * Records the given node (with the current segment) as a frontier-state at the current position,
+     * unless we are already inside a frontier-state at the same position.
+     * Returns the previous frontier-position that has to be passed to {@link #exitFrontier(int)} afterwards.
+     */
+    int enterFrontier(int node) {
+        if (frontiers == null) return -1;
+
+        int position = input.getPosition();
+        int previous = activeFrontierPosition;
+        if (previous != position) {
+            frontiers.computeIfAbsent(position, p -> new ArrayList<>())
+                    .add(new ParseSession.Frontier<>(node, currentSegment));
+            activeFrontierPosition = position;
         }
+        return previous;
+    }
+
+    void exitFrontier(int previousFrontierPosition) {
+        activeFrontierPosition = previousFrontierPosition;
+    }
+
+    /**
+     * Marks that something at the given position has been parsed, that might depend on input after its own token.
+     * So a {@link ParseSession} can not resume parsing from behind this position.
+     */
+    void limitResumePosition(int position) {
+        if (position < resumePositionLimit) resumePositionLimit = position;
+    }
+
+    /**
+     * Parses the argument at the current position with the given parser.<br>
+     * If the parser is {@link ArgumentParser#isMemoizable() memoizable} and has already parsed this position during
+     * this parse, the previous result (or exception) is reused and the input is moved to the previous end-position.<br>
+     * A mismatch might be returned as an {@link de.bluecolored.bluecommands.parsers.ArgumentMismatch} instead of
+     * being thrown, see {@link ArgumentParser#tryParse(Object, InputReader)}.
+     */
+    Object parseArgument(ArgumentParser<C, ?> parser) throws CommandParseException {
+        if (!parser.isMemoizable()) return parser.tryParse(context, input);
+
+        if (parsedArguments == null) parsedArguments = new HashMap<>();
+        ParsedArgumentKey key = new ParsedArgumentKey(parser, input.getPosition());
+
+        ParsedArgument parsed = parsedArguments.get(key);
+        if (parsed == null) {
+            try {
+                Object value = parser.tryParse(context, input);
+                parsedArguments.put(key, new ParsedArgument(value, input.getPosition(), null));
+                return value;
+            } catch (CommandParseException ex) {
+                parsedArguments.put(key, new ParsedArgument(null, input.getPosition(), ex));
+                throw ex;
+            }
+        }
+
+        input.setPosition(parsed.end);
+        if (parsed.exception != null) throw parsed.exception;
+        return parsed.value;
+    }
+
+    /**
+     * Returns the array holding the validity of each node of the parsed tree, all unknown (0) at the start of the parse.
+     */
+    byte[] getNodeValidity(int treeSize) {
+        if (nodeValidity == null) nodeValidity = new byte[treeSize];
+        return nodeValidity;
+    }
+
+    Map<Object, Object> getValidationState() {
+        if (validationState == null) validationState = new HashMap<>();
+        return validationState;
+    }
+
+    void setCurrentValue(Object value) {
+        currentSegment = currentSegment.withValue(value);
+    }
+
+    public void pushSegment(Command<C, T> command) {
+        currentSegment = new ParseSegment<>(command, input.getPosition(), null, currentSegment);
     }
 
     public void popSegment() {
-        synchronized (segments) {
-            input.setPosition(segments.removeLast().getPosition());
+        ParseSegment<C, T> parent = currentSegment.getParent();
+        if (parent == null) throw new IllegalStateException("Can not pop the initial segment!");
+        input.setPosition(currentSegment.getPosition());
+        currentSegment = parent;
+    }
+
+    private static final class ParsedArgumentKey {
+
+        private final ArgumentParser<?, ?> parser;
+        private final int position;
+
+        private ParsedArgumentKey(ArgumentParser<?, ?> parser, int position) {
+            this.parser = parser;
+            this.position = position;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ParsedArgumentKey)) return false;
+            ParsedArgumentKey that = (ParsedArgumentKey) o;
+            return parser == that.parser && position == that.position;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(parser) + position;
+        }
+
+    }
+
+    private static final class ParsedArgument {
+
+        private final @Nullable Object value;
+        private final int end;
+        private final @Nullable CommandParseException exception;
+
+        private ParsedArgument(@Nullable Object value, int end, @Nullable CommandParseException exception) {
+            this.value = value;
+            this.end = end;
+            this.exception = exception;
         }
+
     }
 
 }
@@ -24,6 +24,8 @@
  */
 package de.bluecolored.bluecommands;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.util.Collections;
 import java.util.List;
 
@@ -31,7 +33,8 @@ public class ParseFailure<C, T> {
 
     private final int position;
     private final String reason;
-    private final List<ParseSegment<C, T>> commandStack;
+    private final @Nullable ParseSegment<C, T> segment;
+    private volatile List<ParseSegment<C, T>> commandStack;
     private final List<Suggestion> suggestions;
 
     public ParseFailure(int position, String reason, List<ParseSegment<C, T>> commandStack) {
@@ -41,10 +44,21 @@ public class ParseFailure<C, T> {
     public ParseFailure(int position, String reason, List<ParseSegment<C, T>> commandStack, List<Suggestion> suggestions) {
         this.position = position;
         this.reason = reason;
+        this.segment = null;
         this.commandStack = commandStack;
         this.suggestions = suggestions;
     }
 
+    /**
+     * Creates a failure that lazily resolves its command-stack from the given (last) segment.
+     */
+    ParseFailure(int position, String reason, ParseSegment<C, T> segment, List<Suggestion> suggestions) {
+        this.position = position;
+        this.reason = reason;
+        this.segment = segment;
+        this.suggestions = suggestions;
+    }
+
     public int getPosition() {
         return position;
     }
@@ -54,6 +68,12 @@ public class ParseFailure<C, T> {
     }
 
     public List<ParseSegment<C, T>> getCommandStack() {
+        List<ParseSegment<C, T>> commandStack = this.commandStack;
+        if (commandStack == null) {
+            //noinspection DataFlowIssue
+            commandStack = segment.toCommandStack();
+            this.commandStack = commandStack;
+        }
         return commandStack;
     }
 
@@ -24,6 +24,8 @@
  */
 package de.bluecolored.bluecommands;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.util.List;
 import java.util.Map;
 
@@ -31,18 +33,29 @@ public class ParseMatch<C, T> {
 
     private final CommandExecutable<C, T> executable;
     private final C context;
-    private final Map<String, Object> arguments;
-    private final List<ParseSegment<C, T>> commandStack;
+    private final @Nullable ParseSegment<C, T> segment;
+    private volatile Map<String, Object> arguments;
+    private volatile List<ParseSegment<C, T>> commandStack;
 
     public ParseMatch(CommandExecutable<C, T> executable, C context, Map<String, Object> arguments, List<ParseSegment<C, T>> commandStack) {
         this.executable = executable;
         this.context = context;
+        this.segment = null;
         this.arguments = arguments;
         this.commandStack = commandStack;
     }
 
+    /**
+     * Creates a match that lazily resolves its arguments and command-stack from the given (last) segment.
+     */
+    ParseMatch(CommandExecutable<C, T> executable, C context, ParseSegment<C, T> segment) {
+        this.executable = executable;
+        this.context = context;
+        this.segment = segment;
+    }
+
     public T execute() {
-        return executable.execute(context, arguments);
+        return executable.execute(context, getArguments());
     }
 
     public CommandExecutable<C, T> getExecutable() {
@@ -54,6 +67,12 @@ public class ParseMatch<C, T> {
     }
 
     public Map<String, Object> getArguments() {
+        Map<String, Object> arguments = this.arguments;
+        if (arguments == null) {
+            //noinspection DataFlowIssue
+            arguments = segment.collectArguments();
+            this.arguments = arguments;
+        }
         return arguments;
     }
 
@@ -62,6 +81,12 @@ public class ParseMatch<C, T> {
     }
 
     public List<ParseSegment<C, T>> getCommandStack() {
+        List<ParseSegment<C, T>> commandStack = this.commandStack;
+        if (commandStack == null) {
+            //noinspection DataFlowIssue
+            commandStack = segment.toCommandStack();
+            this.commandStack = commandStack;
+        }
         return commandStack;
     }
 
@@ -0,0 +1,55 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands;
+
+public enum ParseMode {
+
+    /**
+     * Records all matches and all failures including their suggestions.
+     */
+    FULL,
+
+    /**
+     * Only records what is needed to execute the command:
+     * All matches, or if there are none, only the failure that got the furthest into the input (for an error-message).<br>
+     * No suggestions are collected.
+     */
+    EXECUTE,
+
+    /**
+     * Same as {@link #EXECUTE}, but only records the first match with the highest priority.<br>
+     * Branches of the command-tree that can not contain a match with a higher priority than the best match so far
+     * are skipped entirely.
+     */
+    BEST,
+
+    /**
+     * Only records the failures that have suggestions for the last word of the input (starting after the last space).<br>
+     * No matches are recorded.
+     * @see Command#suggest(Object, InputReader, int)
+     */
+    SUGGEST
+
+}
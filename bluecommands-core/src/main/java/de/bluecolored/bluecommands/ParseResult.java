@@ -56,6 +56,14 @@ public class ParseResult<C, T> {
         matches.add(match);
     }
 
+    void clearMatches() {
+        matches.clear();
+    }
+
+    int getMatchCount() {
+        return matches.size();
+    }
+
     public Collection<ParseFailure<C, T>> getFailures() {
         return Collections.unmodifiableCollection(failures);
     }
@@ -64,4 +72,12 @@ public class ParseResult<C, T> {
         failures.add(failure);
     }
 
+    int getFailureCount() {
+        return failures.size();
+    }
+
+    void clearFailures() {
+        failures.clear();
+    }
+
 }
@@ -24,16 +24,33 @@
  */
 package de.bluecolored.bluecommands;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An immutable segment of a command-stack.<br>
+ * Each segment links to its parent-segment, so all matches and failures of a parse can share the common part of
+ * their command-stacks.
+ */
 public class ParseSegment<C, T> {
 
     private final int position;
     private final Command<C, T> command;
-    private Object value;
+    private final Object value;
+    private final @Nullable ParseSegment<C, T> parent;
+    private final int depth;
 
     public ParseSegment(Command<C, T> command, int position) {
+        this(command, position, null, null);
+    }
+
+    ParseSegment(Command<C, T> command, int position, Object value, @Nullable ParseSegment<C, T> parent) {
         this.position = position;
         this.command = command;
-        this.value = null;
+        this.value = value;
+        this.parent = parent;
+        this.depth = parent != null ? parent.depth + 1 : 1;
     }
 
     public int getPosition() {
@@ -48,8 +65,40 @@ public class ParseSegment<C, T> {
         return value;
     }
 
-    void setValue(Object value) {
-        this.value = value;
+    @Nullable ParseSegment<C, T> getParent() {
+        return parent;
+    }
+
+    ParseSegment<C, T> withValue(Object value) {
+        return new ParseSegment<>(command, position, value, parent);
+    }
+
+    /**
+     * Returns the full command-stack ending with this segment.
+     */
+    List<ParseSegment<C, T>> toCommandStack() {
+        @SuppressWarnings("unchecked")
+        ParseSegment<C, T>[] stack = (ParseSegment<C, T>[]) new ParseSegment<?, ?>[depth];
+        ParseSegment<C, T> segment = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            stack[i] = segment;
+            segment = segment.parent;
+        }
+        return Collections.unmodifiableList(Arrays.asList(stack));
+    }
+
+    /**
+     * Collects the values of all argument-segments of the command-stack ending with this segment.
+     */
+    Map<String, Object> collectArguments() {
+        Map<String, Object> arguments = new HashMap<>();
+        for (ParseSegment<C, T> segment = this; segment != null; segment = segment.parent) {
+            if (segment.command instanceof ArgumentCommand) {
+                String argumentId = ((ArgumentCommand<?, ?>) segment.command).getArgumentId();
+                if (!arguments.containsKey(argumentId)) arguments.put(argumentId, segment.value);
+            }
+        }
+        return Collections.unmodifiableMap(arguments);
     }
 
 }
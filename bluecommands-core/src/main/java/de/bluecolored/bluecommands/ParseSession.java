@@ -0,0 +1,127 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands;
+
+import java.util.*;
+
+/**
+ * Parses inputs that are typed one character at a time (e.g. for live feedback while typing) for one context.<br>
+ * The state of the parsing is kept at each start of a token. If a new input shares a prefix with the previous input,
+ * parsing resumes from the last token-start inside that prefix instead of starting at the beginning again.
+ * Parsing always uses {@link ParseMode#FULL}, but the failures are not necessarily in the same order as with
+ * {@link Command#parse(Object, String)}.<br>
+ * Parsing can only resume behind tokens that have been parsed by literals or by non-optional, non-greedy
+ * {@link de.bluecolored.bluecommands.parsers.SimpleArgumentParser}s, since other argument-parsers might read
+ * further than their own token.<br>
+ * A ParseSession is not thread-safe.
+ */
+public class ParseSession<C, T> {
+
+    private final Command<C, T> command;
+    private final C context;
+
+    private CompiledCommandTree<C, T> tree;
+    private String lastInput;
+    private ParseData<C, T> lastData;
+    private NavigableMap<Integer, List<Frontier<C, T>>> lastFrontiers;
+    private int lastResumePositionLimit;
+
+    public ParseSession(Command<C, T> command, C context) {
+        this.command = command;
+        this.context = context;
+    }
+
+    public C getContext() {
+        return context;
+    }
+
+    public ParseResult<C, T> parse(String input) {
+        CompiledCommandTree<C, T> tree = command.compile();
+        ParseData<C, T> data = new ParseData<>(context, new InputReader(input), ParseMode.FULL, tree.getRoot());
+
+        int resumePosition = tree == this.tree ? findResumePosition(input) : -1;
+        if (resumePosition > 0) {
+            data.recordFrontiers(new TreeMap<>(lastFrontiers.headMap(resumePosition, false)));
+
+            // keep the failures that have been created before reaching the resume-position
+            int failureIndex = 0;
+            for (ParseFailure<C, T> failure : lastData.getResult().getFailures()) {
+                int frontierPosition = lastData.getFailureFrontierPosition(failureIndex++);
+                if (frontierPosition < resumePosition)
+                    data.addFailure(failure, frontierPosition);
+            }
+
+            tree.parseFrom(data, resumePosition, lastFrontiers.get(resumePosition));
+        } else {
+            data.recordFrontiers(new TreeMap<>());
+            tree.parse(data);
+        }
+
+        this.tree = tree;
+        this.lastInput = input;
+        this.lastData = data;
+        this.lastFrontiers = data.getFrontiers();
+        this.lastResumePositionLimit = data.getResumePositionLimit();
+
+        return data.getResult();
+    }
+
+    /**
+     * Returns the last token-start that is still valid for the new input, or -1 if there is none.
+     */
+    private int findResumePosition(String input) {
+        int commonPrefix = 0;
+        int maxPrefix = Math.min(input.length(), lastInput.length());
+        while (commonPrefix < maxPrefix && input.charAt(commonPrefix) == lastInput.charAt(commonPrefix))
+            commonPrefix++;
+
+        Integer position = lastFrontiers.floorKey(Math.min(commonPrefix, lastResumePositionLimit));
+        return position != null ? position : -1;
+    }
+
+    /**
+     * A node that has been reached at a token-start, together with the segment it has been reached with.
+     */
+    static final class Frontier<C, T> {
+
+        private final int node;
+        private final ParseSegment<C, T> segment;
+
+        Frontier(int node, ParseSegment<C, T> segment) {
+            this.node = node;
+            this.segment = segment;
+        }
+
+        int getNode() {
+            return node;
+        }
+
+        ParseSegment<C, T> getSegment() {
+            return segment;
+        }
+
+    }
+
+}
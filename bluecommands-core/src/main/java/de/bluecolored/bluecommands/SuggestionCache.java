@@ -0,0 +1,172 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * A bounded cache for the suggestions of commands, keyed by a key of the context and the input up to the cursor.<br>
+ * Entries expire after a fixed time and the least recently used entries are evicted once the cache is full.
+ * Entries of a command-tree that has been modified afterwards are never returned.
+ * @see ExpiringCache
+ */
+public class SuggestionCache<C> {
+
+    private final Function<C, ?> contextKeyFunction;
+    private final ExpiringCache<Key, List<Suggestion>> entries;
+
+    /**
+     * @param contextKeyFunction returns the key of a context, all contexts with an equal key share their suggestions.
+     *                           Returning <code>null</code> disables caching for that context.
+     * @param maximumSize the maximum number of cached suggestion-results
+     * @param expireAfter the time after which a cached suggestion-result is discarded
+     */
+    public SuggestionCache(Function<C, ?> contextKeyFunction, int maximumSize, Duration expireAfter) {
+        this.contextKeyFunction = contextKeyFunction;
+        this.entries = new ExpiringCache<>(maximumSize, expireAfter);
+    }
+
+    /**
+     * Same as {@link Command#suggest(Object, InputReader, int)}, but returns the cached suggestions if there are any.
+     */
+    public <T> List<Suggestion> suggest(Command<C, T> command, C context, InputReader input, int cursor) {
+        CompiledCommandTree<C, T> tree = command.compile();
+        Key key = createKey(tree, context, input, cursor);
+        if (key == null) return tree.suggest(context, input, cursor);
+
+        List<Suggestion> suggestions = entries.get(key);
+        if (suggestions != null) return suggestions;
+
+        return put(key, tree.suggest(context, input, cursor));
+    }
+
+    /**
+     * Same as {@link Command#suggestAsync(Object, InputReader, int, int, BooleanSupplier)}, but returns the cached
+     * suggestions if there are any.
+     * Suggestions of a cancelled request are not cached.
+     */
+    public <T> CompletableFuture<List<Suggestion>> suggestAsync(
+            Command<C, T> command,
+            C context,
+            InputReader input,
+            int cursor,
+            BooleanSupplier cancellation
+    ) {
+        CompiledCommandTree<C, T> tree = command.compile();
+        Key key = createKey(tree, context, input, cursor);
+        if (key == null) return tree.suggestAsync(context, input, cursor, Integer.MAX_VALUE, cancellation);
+
+        List<Suggestion> suggestions = entries.get(key);
+        if (suggestions != null) return CompletableFuture.completedFuture(suggestions);
+
+        return tree.suggestAsync(context, input, cursor, Integer.MAX_VALUE, cancellation)
+                .thenApply(result -> {
+                    if (cancellation.getAsBoolean()) return result;
+                    return put(key, result);
+                });
+    }
+
+    /**
+     * Removes all cached suggestions of contexts with the given key.
+     */
+    public void invalidate(Object contextKey) {
+        entries.removeIf(key -> key.contextKey.equals(contextKey));
+    }
+
+    /**
+     * Removes all cached suggestions.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private @Nullable Key createKey(CompiledCommandTree<C, ?> tree, C context, InputReader input, int cursor) {
+        Object contextKey = contextKeyFunction.apply(context);
+        if (contextKey == null) return null;
+
+        String string = input.getInput();
+        return new Key(
+                tree,
+                contextKey,
+                cursor < string.length() ? string.substring(0, cursor) : string,
+                input.getPosition()
+        );
+    }
+
+    private List<Suggestion> put(Key key, List<Suggestion> suggestions) {
+        suggestions = Collections.unmodifiableList(suggestions);
+        entries.put(key, suggestions);
+        return suggestions;
+    }
+
+    private static final class Key {
+
+        // compared by identity, so a modified command-tree (which is compiled again) never uses old entries
+        private final CompiledCommandTree<?, ?> tree;
+        private final Object contextKey;
+        private final String input;
+        private final int position;
+        private final int hash;
+
+        private Key(CompiledCommandTree<?, ?> tree, Object contextKey, String input, int position) {
+            this.tree = tree;
+            this.contextKey = contextKey;
+            this.input = input;
+            this.position = position;
+
+            int hash = System.identityHashCode(tree);
+            hash = 31 * hash + contextKey.hashCode();
+            hash = 31 * hash + input.hashCode();
+            hash = 31 * hash + position;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return
+                    tree == other.tree &&
+                    position == other.position &&
+                    input.equals(other.input) &&
+                    contextKey.equals(other.contextKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
@@ -30,15 +30,45 @@ import de.bluecolored.bluecommands.Suggestion;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface ArgumentParser<C, T> {
 
     T parse(C context, InputReader input) throws CommandParseException;
 
+    /**
+     * Same as {@link #parse(Object, InputReader)}, but a mismatch can be returned as an {@link ArgumentMismatch}
+     * instead of being thrown, so its exception is only created if the failure is actually reported.<br>
+     * The default implementation calls {@link #parse(Object, InputReader)} and never returns a mismatch.
+     */
+    default Object tryParse(C context, InputReader input) throws CommandParseException {
+        return parse(context, input);
+    }
+
     List<Suggestion> suggest(C context, InputReader input);
 
     default List<Suggestion> suggest(C context) {
         return suggest(context, new InputReader(""));
     }
 
+    /**
+     * Asynchronously collects the suggestions, this is used by {@link de.bluecolored.bluecommands.Command#suggestAsync}.<br>
+     * Parsers that need a slow lookup (e.g. from a database) for their suggestions can override this to not block
+     * the thread that is collecting the suggestions.
+     * The default implementation simply calls {@link #suggest(Object, InputReader)}.
+     */
+    default CompletableFuture<List<Suggestion>> suggestAsync(C context, InputReader input) {
+        return CompletableFuture.completedFuture(suggest(context, input));
+    }
+
+    /**
+     * Returns true if the result of {@link #parse(Object, InputReader)} only depends on the context and the input,
+     * so it can be reused if the same position is parsed again with this parser during the same parse
+     * (e.g. by multiple commands sharing this parser after merging).<br>
+     * Parsers that return a different result each time or that have side effects should return false.
+     */
+    default boolean isMemoizable() {
+        return true;
+    }
+
 }
@@ -27,39 +27,91 @@ package de.bluecolored.bluecommands.parsers;
 import de.bluecolored.bluecommands.CommandParseException;
 import de.bluecolored.bluecommands.InputReader;
 import de.bluecolored.bluecommands.Suggestion;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.function.Function;
 
 public class NumberArgumentParser<C, T extends Number> extends SimpleArgumentParser<C, T> {
 
+    /**
+     * Returned by {@link #parseNegatedInteger(String, int, int, long, long)} if the input is not a valid number.
+     * (The negated value of a valid number is never positive)
+     */
+    private static final long NOT_A_NUMBER = 1;
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
     private final Class<T> type;
-    private final StringParser<T> numberParser;
+    private final NumberType numberType;
     private final double min, max;
 
-    private NumberArgumentParser(Class<T> type, StringParser<T> numberParser) {
-        super(false, false);
-        this.type = type;
-        this.numberParser = numberParser;
-        this.min = Double.NEGATIVE_INFINITY;
-        this.max = Double.POSITIVE_INFINITY;
+    // the bounds converted (exactly) to the integral range, only used for integral number-types
+    private final long lowerBound, upperBound;
+
+    private NumberArgumentParser(Class<T> type, NumberType numberType) {
+        this(type, numberType, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
     }
 
-    private NumberArgumentParser(Class<T> type, StringParser<T> numberParser, double min, double max) {
+    private NumberArgumentParser(Class<T> type, NumberType numberType, double min, double max) {
         super(false, false);
         this.type = type;
-        this.numberParser = numberParser;
+        this.numberType = numberType;
         this.min = min;
         this.max = max;
+
+        if (min >= 0x1p63 || max < -0x1p63) {
+            // no long satisfies these bounds
+            this.lowerBound = Long.MAX_VALUE;
+            this.upperBound = Long.MIN_VALUE;
+        } else {
+            this.lowerBound = min > -0x1p63 ? (long) Math.ceil(min) : Long.MIN_VALUE;
+            this.upperBound = max < 0x1p63 ? (long) Math.floor(max) : Long.MAX_VALUE;
+        }
     }
 
     @Override
     public T parse(C context, String string) throws CommandParseException {
-        T result = numberParser.parse(string);
-        if (result.doubleValue() < min) throw new CommandParseException(result + " is too small. It has to be greater or equal to " + min);
-        if (result.doubleValue() > max) throw new CommandParseException(result + " is too big. It has to be smaller or equal to " + max);
-        return result;
+        return parse(context, string, 0, string.length());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T parse(C context, String input, int start, int end) throws CommandParseException {
+        Object result = tryParse(context, input, start, end);
+        if (result instanceof ArgumentMismatch) throw ((ArgumentMismatch) result).createException();
+        return (T) result;
+    }
+
+    @Override
+    protected Object tryParse(C context, String input, int start, int end) {
+        if (numberType.integral) {
+            long value = parseNegatedInteger(input, start, end, numberType.minValue, numberType.maxValue);
+            if (value == NOT_A_NUMBER) return notANumber(input, start, end);
+            if (input.charAt(start) != '-') value = -value;
+
+            if (value < lowerBound) return tooSmall(box(value));
+            if (value > upperBound) return tooBig(box(value));
+            return box(value);
+        }
+
+        boolean isFloat = numberType == NumberType.FLOAT;
+        double value = isFloat ? parseFloatFast(input, start, end) : parseDoubleFast(input, start, end);
+        if (Double.isNaN(value)) {
+            Double fallback = isFloat ? parseFloatFallback(input, start, end) : parseDoubleFallback(input, start, end);
+            if (fallback == null) return notANumber(input, start, end);
+            value = fallback;
+        }
+
+        if (value < min) return tooSmall(box(value));
+        if (value > max) return tooBig(box(value));
+        return box(value);
     }
 
     @Override
@@ -80,57 +132,223 @@ public class NumberArgumentParser<C, T extends Number> extends SimpleArgumentPar
     }
 
     public NumberArgumentParser<C, T> withBounds(double min, double max) {
-        return new NumberArgumentParser<>(type, numberParser, min, max);
+        return new NumberArgumentParser<>(type, numberType, min, max);
     }
 
     public NumberArgumentParser<C, T> withMin(double min) {
-        return new NumberArgumentParser<>(type, numberParser, min, max);
+        return new NumberArgumentParser<>(type, numberType, min, max);
     }
 
     public NumberArgumentParser<C, T> withMax(double max) {
-        return new NumberArgumentParser<>(type, numberParser, min, max);
+        return new NumberArgumentParser<>(type, numberType, min, max);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T box(long value) {
+        switch (numberType) {
+            case BYTE: return (T) Byte.valueOf((byte) value);
+            case SHORT: return (T) Short.valueOf((short) value);
+            case INTEGER: return (T) Integer.valueOf((int) value);
+            default: return (T) Long.valueOf(value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T box(double value) {
+        if (numberType == NumberType.FLOAT) return (T) Float.valueOf((float) value);
+        return (T) Double.valueOf(value);
+    }
+
+    private ArgumentMismatch notANumber(String input, int start, int end) {
+        return () -> new CommandParseException("'" + input.substring(start, end) + "' is not a valid " + type.getSimpleName());
+    }
+
+    private ArgumentMismatch tooSmall(T value) {
+        return () -> new CommandParseException(value + " is too small. It has to be greater or equal to " + min);
+    }
+
+    private ArgumentMismatch tooBig(T value) {
+        return () -> new CommandParseException(value + " is too big. It has to be smaller or equal to " + max);
+    }
+
+    /**
+     * Parses the input-range as a base-10 integer in the same format as {@link Long#parseLong(String)}, and returns its
+     * <b>negated</b> value, or {@link #NOT_A_NUMBER} if it is not a valid integer between typeMin and typeMax.<br>
+     * Accumulating the value negatively allows to parse the lowest value of a type without overflowing.
+     */
+    private static long parseNegatedInteger(String input, int start, int end, long typeMin, long typeMax) {
+        if (start >= end) return NOT_A_NUMBER;
+
+        boolean negative = false;
+        char first = input.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++start == end) return NOT_A_NUMBER;
+        }
+
+        long limit = negative ? typeMin : -typeMax;
+        long limitBeforeMultiply = limit / 10;
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(input.charAt(i), 10);
+            if (digit < 0 || result < limitBeforeMultiply) return NOT_A_NUMBER;
+            result *= 10;
+            if (result < limit + digit) return NOT_A_NUMBER;
+            result -= digit;
+        }
+        return result;
+    }
+
+    /**
+     * Parses simple decimals (no exponent, at most 15 digits and at most 22 fractional digits) exactly,
+     * by dividing two exactly representable doubles. Returns NaN for any other input.
+     */
+    private static double parseDoubleFast(String input, int start, int end) {
+        if (start >= end) return Double.NaN;
+
+        boolean negative = false;
+        char first = input.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+
+        long mantissa = 0;
+        int digits = 0, fractionDigits = 0;
+        boolean fraction = false;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 15) return Double.NaN;
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction) fractionDigits++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || fractionDigits >= DOUBLE_POWERS_OF_TEN.length) return Double.NaN;
+
+        double value = mantissa / DOUBLE_POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Same as {@link #parseDoubleFast(String, int, int)}, but with the (smaller) limits for an exact float-division.
+     */
+    private static double parseFloatFast(String input, int start, int end) {
+        if (start >= end) return Double.NaN;
+
+        boolean negative = false;
+        char first = input.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+
+        int mantissa = 0;
+        int digits = 0, fractionDigits = 0;
+        boolean fraction = false;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 7) return Double.NaN;
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction) fractionDigits++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || fractionDigits >= FLOAT_POWERS_OF_TEN.length) return Double.NaN;
+
+        float value = mantissa / FLOAT_POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the input-range using {@link Double#parseDouble(String)}, or returns null if it is not a valid number.
+     */
+    private static @Nullable Double parseDoubleFallback(String input, int start, int end) {
+        if (!isFloatingPointStart(input, start, end)) return null;
+        try {
+            return Double.parseDouble(input.substring(start, end));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the input-range using {@link Float#parseFloat(String)}, or returns null if it is not a valid number.
+     */
+    private static @Nullable Double parseFloatFallback(String input, int start, int end) {
+        if (!isFloatingPointStart(input, start, end)) return null;
+        try {
+            return (double) Float.parseFloat(input.substring(start, end));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Quick check to reject most non-numbers (e.g. words) without provoking a {@link NumberFormatException}.
+     */
+    private static boolean isFloatingPointStart(String input, int start, int end) {
+        if (start < end && (input.charAt(start) == '-' || input.charAt(start) == '+')) start++;
+        if (start >= end) return false;
+        char c = input.charAt(start);
+        return (c >= '0' && c <= '9') || c == '.' || c == 'N' || c == 'I' || c <= ' ';
     }
 
     public static <C> NumberArgumentParser<C, Byte> forBytes() {
-        return createWrapped(Byte.class, Byte::parseByte);
+        return new NumberArgumentParser<>(Byte.class, NumberType.BYTE);
     }
 
     public static <C> NumberArgumentParser<C, Short> forShorts() {
-        return createWrapped(Short.class, Short::parseShort);
+        return new NumberArgumentParser<>(Short.class, NumberType.SHORT);
     }
 
     public static <C> NumberArgumentParser<C, Integer> forIntegers() {
-        return createWrapped(Integer.class, Integer::parseInt);
+        return new NumberArgumentParser<>(Integer.class, NumberType.INTEGER);
     }
 
     public static <C> NumberArgumentParser<C, Long> forLongs() {
-        return createWrapped(Long.class, Long::parseLong);
+        return new NumberArgumentParser<>(Long.class, NumberType.LONG);
     }
 
     public static <C> NumberArgumentParser<C, Float> forFloats() {
-        return createWrapped(Float.class, Float::parseFloat);
+        return new NumberArgumentParser<>(Float.class, NumberType.FLOAT);
     }
 
     public static <C> NumberArgumentParser<C, Double> forDoubles() {
-        return createWrapped(Double.class, Double::parseDouble);
+        return new NumberArgumentParser<>(Double.class, NumberType.DOUBLE);
     }
 
-    private static <C, T extends Number> NumberArgumentParser<C, T> createWrapped(Class<T> type, Function<String, T> numberParser) {
-        return new NumberArgumentParser<>(type, wrap(numberParser, type));
-    }
+    private enum NumberType {
+        BYTE (Byte.MIN_VALUE, Byte.MAX_VALUE),
+        SHORT (Short.MIN_VALUE, Short.MAX_VALUE),
+        INTEGER (Integer.MIN_VALUE, Integer.MAX_VALUE),
+        LONG (Long.MIN_VALUE, Long.MAX_VALUE),
+        FLOAT,
+        DOUBLE;
 
-    private static <T> StringParser<T> wrap(Function<String, T> numberParser, Class<T> type) {
-        return s -> {
-            try {
-                return numberParser.apply(s);
-            } catch (RuntimeException ex) {
-                throw new CommandParseException("'" + s +"' is not a vaild " + type.getSimpleName());
-            }
-        };
-    }
+        private final boolean integral;
+        private final long minValue, maxValue;
+
+        NumberType() {
+            this.integral = false;
+            this.minValue = 0;
+            this.maxValue = 0;
+        }
+
+        NumberType(long minValue, long maxValue) {
+            this.integral = true;
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+        }
 
-    private interface StringParser<T> {
-        T parse(String string) throws CommandParseException;
     }
 
 }
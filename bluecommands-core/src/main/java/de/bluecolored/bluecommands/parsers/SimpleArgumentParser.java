@@ -32,14 +32,9 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.MatchResult;
-import java.util.regex.Pattern;
 
 public abstract class SimpleArgumentParser<C, T> implements ArgumentParser<C, T> {
 
-    private static final Pattern QUOTED_STRING_PATTERN = Pattern.compile("\"(.*?)\"");
-    private static final Pattern STRING_PATTERN = Pattern.compile("(\\S*)");
-
     private final boolean allowQuoted;
     private final boolean greedy;
 
@@ -49,13 +44,59 @@ public abstract class SimpleArgumentParser<C, T> implements ArgumentParser<C, T>
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public final T parse(C context, InputReader input) throws CommandParseException {
-        MatchResult result = null;
-        if (allowQuoted) result = input.read(QUOTED_STRING_PATTERN);
-        if (result == null && greedy) return parse(context, input.readRemaining());
-        if (result == null) result = input.read(STRING_PATTERN);
-        if (result == null) return parse(context, "");
-        return parse(context, result.group(1));
+        Object result = tryParse(context, input);
+        if (result instanceof ArgumentMismatch) throw ((ArgumentMismatch) result).createException();
+        return (T) result;
+    }
+
+    @Override
+    public final Object tryParse(C context, InputReader input) throws CommandParseException {
+        String string = input.getInput();
+        int start = input.getPosition();
+
+        if (allowQuoted && input.peek() == '"') {
+            int end = findClosingQuote(string, start + 1);
+            if (end != -1) {
+                input.setPosition(end + 1);
+                return tryParse(context, string, start + 1, end);
+            }
+        }
+
+        int end = greedy ? string.length() : input.peekTokenEnd();
+        input.setPosition(end);
+        return tryParse(context, string, start, end);
+    }
+
+    /**
+     * Returns the index of the next quote in the same line, or -1 if there is none.
+     */
+    private static int findClosingQuote(String input, int start) {
+        for (int i = start; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '"') return i;
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the (already unquoted) argument between start (inclusive) and end (exclusive) of the input.<br>
+     * The default implementation creates a substring and passes it to {@link #parse(Object, String)},
+     * parsers that can read the characters directly can override this to avoid the copy.
+     */
+    protected T parse(C context, String input, int start, int end) throws CommandParseException {
+        return parse(context, input.substring(start, end));
+    }
+
+    /**
+     * Same as {@link #parse(Object, String, int, int)}, but a mismatch can be returned as an {@link ArgumentMismatch}
+     * instead of being thrown, see {@link ArgumentParser#tryParse(Object, InputReader)}.<br>
+     * The default implementation calls {@link #parse(Object, String, int, int)}.
+     */
+    protected Object tryParse(C context, String input, int start, int end) throws CommandParseException {
+        return parse(context, input, start, end);
     }
 
     public abstract T parse(C context, String string) throws CommandParseException;
@@ -27,14 +27,38 @@ package de.bluecolored.bluecommands;
 import de.bluecolored.bluecommands.annotations.Argument;
 import de.bluecolored.bluecommands.annotations.Command;
 import de.bluecolored.bluecommands.annotations.ParserType;
+import de.bluecolored.bluecommands.annotations.Priority;
+import de.bluecolored.bluecommands.parsers.ArgumentMismatch;
 import de.bluecolored.bluecommands.parsers.ArgumentParser;
+import de.bluecolored.bluecommands.parsers.NumberArgumentParser;
 import de.bluecolored.bluecommands.parsers.SimpleArgumentParser;
+import de.bluecolored.bluecommands.parsers.StringArgumentParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,11 +66,13 @@ import static org.junit.jupiter.api.Assertions.*;
 public class BlueCommandsTest {
 
     private de.bluecolored.bluecommands.Command<?, ?> commands;
+    private de.bluecolored.bluecommands.Command<?, ?> echoCommands;
 
     @BeforeEach
     public void init() {
         BlueCommands<?> blueCommands = new BlueCommands<>();
         commands = blueCommands.createCommand(this);
+        echoCommands = new BlueCommands<>().createCommands(List.of(this, new EchoHolder()));
     }
 
     @Test
@@ -133,6 +159,589 @@ public class BlueCommandsTest {
         ), allSuggestions(result));
     }
 
+    @Test
+    public void testSuggest() {
+        for (String input : List.of("test ", "test arg1", "test arg1 ", "test arg1 arg2", "test arg1 arg2 ", "echo ")) {
+            var suggestions = echoCommands.suggest(null, input, input.length()).stream()
+                    .map(Suggestion::getString)
+                    .collect(Collectors.toSet());
+            assertEquals(allSuggestions(echoCommands.parse(null, input)), suggestions, input);
+        }
+
+        // only the input before the cursor is relevant
+        var suggestions = echoCommands.suggest(null, "test arg1 arg2", 10).stream()
+                .map(Suggestion::getString)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("suggestion2_1", "suggestion2_2", "suggestion3_1", "suggestion3_2"), suggestions);
+
+        // literals are filtered by prefix, sorted and limited
+        assertEquals(List.of("echo", "fail", "other", "restricted", "test"), suggestionStrings(echoCommands.suggest(null, "", 0)));
+        assertEquals(List.of("other"), suggestionStrings(echoCommands.suggest(null, "OTH", 3)));
+        assertEquals(List.of("echo", "fail"), suggestionStrings(echoCommands.suggest(null, new InputReader(""), 0, 2)));
+    }
+
+    @Test
+    public void testSuggestAsync() {
+        var input = new InputReader("test arg1 ");
+        var suggestions = commands.suggestAsync(null, input, 10).join();
+        assertEquals(suggestionStrings(commands.suggest(null, input, 10)), suggestionStrings(suggestions));
+
+        var cancelled = commands.suggestAsync(null, input, 10, Integer.MAX_VALUE, () -> true).join();
+        assertTrue(cancelled.isEmpty());
+    }
+
+    @Test
+    public void testSuggestionCache() {
+        @SuppressWarnings("unchecked")
+        var root = (de.bluecolored.bluecommands.Command<Object, Object>) commands;
+
+        SuggestionCache<Object> cache = new SuggestionCache<>(context -> "key", 16, Duration.ofMinutes(1));
+        var input = new InputReader("test arg1 ");
+
+        var suggestions = cache.suggest(root, null, input, 10);
+        assertSame(suggestions, cache.suggest(root, null, input, 10));
+
+        // modifying the tree invalidates the cached suggestions
+        var literal = new LiteralCommand<Object, Object>("added");
+        literal.setExecutable((context, arguments) -> null);
+        root.addSubCommand(literal);
+        assertNotSame(suggestions, cache.suggest(root, null, input, 10));
+    }
+
+    @Test
+    public void testParseSession() {
+        @SuppressWarnings("unchecked")
+        var root = (de.bluecolored.bluecommands.Command<Object, Object>) echoCommands;
+        var session = new ParseSession<>(root, null);
+
+        // type, then delete and type something else
+        List<String> inputs = new ArrayList<>();
+        String typed = "test arg1 arg2 arg3";
+        for (int i = 0; i <= typed.length(); i++) inputs.add(typed.substring(0, i));
+        for (int i = typed.length(); i >= 10; i--) inputs.add(typed.substring(0, i));
+        inputs.add("test arg1 other");
+        inputs.add("echo value");
+
+        for (String input : inputs) {
+            var expected = root.parse(null, input);
+            var result = session.parse(input);
+            assertEquals(describe(expected), describe(result), input);
+        }
+    }
+
+    @Test
+    public void testLiteralDispatch() {
+        var result = echoCommands.parse(null, "other literal");
+        assertEquals(1, result.getMatches().size());
+        assertTrue(result.getFailures().isEmpty());
+
+        result = echoCommands.parse(null, "oth");
+        assertTrue(result.getMatches().isEmpty());
+        assertEquals(Set.of("test", "other", "echo", "fail", "restricted"), allSuggestions(result));
+    }
+
+    @Test
+    public void testCompiledTree() {
+        @SuppressWarnings("unchecked")
+        var root = (de.bluecolored.bluecommands.Command<Object, Object>) commands;
+
+        var compiled = root.compile();
+        assertSame(compiled, root.compile());
+        assertSame(root, compiled.getRoot());
+
+        var literal = new LiteralCommand<Object, Object>("added");
+        literal.setExecutable((context, arguments) -> null);
+        root.addSubCommand(literal);
+
+        assertNotSame(compiled, root.compile());
+        assertEquals(compiled.size() + 1, root.compile().size());
+        assertEquals(1, root.parse(null, "added").getMatches().size());
+
+        // modifying an unrelated tree keeps the compiled tree
+        compiled = root.compile();
+        new LiteralCommand<Object, Object>("unrelated").addSubCommand(new LiteralCommand<>("other"));
+        assertSame(compiled, root.compile());
+
+        // modifying a nested subcommand recompiles the tree
+        var nested = new LiteralCommand<Object, Object>("nested");
+        nested.setExecutable((context, arguments) -> null);
+        literal.addSubCommand(nested);
+        assertNotSame(compiled, root.compile());
+        assertEquals(1, root.parse(null, "added nested").getMatches().size());
+    }
+
+    @Test
+    public void testExecute() {
+        var match = echoCommands.parse(null, "echo value").getMatches().iterator().next();
+        assertEquals("value", match.execute());
+
+        // exceptions of the command-method are wrapped, the same as with Method#invoke
+        var failingMatch = echoCommands.parse(null, "fail").getMatches().iterator().next();
+        var exception = assertThrows(CommandSetupException.class, failingMatch::execute);
+        assertInstanceOf(InvocationTargetException.class, exception.getCause());
+        assertInstanceOf(IllegalStateException.class, exception.getCause().getCause());
+        assertEquals("failed", exception.getCause().getCause().getMessage());
+    }
+
+    @Test
+    public void testLateContextResolver() {
+        BlueCommands<Object> blueCommands = new BlueCommands<>();
+        var commands = blueCommands.createCommand(new ResolverHolder());
+        var match = commands.parse("context", "resolve").getMatches().iterator().next();
+        assertEquals("context", match.execute());
+
+        // a resolver registered after the commands have been created is used by the existing executables
+        blueCommands.setContextResolverForType(CharSequence.class, context -> "resolved " + context);
+        assertEquals("resolved context", match.execute());
+    }
+
+    @Test
+    public void testContextValidationCache() {
+        Set<String> permitted = new HashSet<>(Set.of("admin"));
+        BlueCommands<String> blueCommands = new BlueCommands<>();
+        blueCommands.setAnnotationContextPredicate(Restricted.class, (restricted, context) ->
+                restricted == null || permitted.contains(context)
+        );
+        var command = blueCommands.createCommand(new EchoHolder());
+
+        assertEquals(1, command.parse("admin", "restricted").getMatches().size());
+        assertTrue(command.parse("user", "restricted").getMatches().isEmpty());
+
+        // without a context-cache, changes are visible right away
+        permitted.add("user");
+        assertEquals(1, command.parse("user", "restricted").getMatches().size());
+        permitted.remove("user");
+
+        blueCommands.setContextCache(context -> context, 16, Duration.ofMinutes(1));
+        assertTrue(command.parse("user", "restricted").getMatches().isEmpty());
+
+        // results are cached until the context is invalidated
+        permitted.add("user");
+        assertTrue(command.parse("user", "restricted").getMatches().isEmpty());
+        blueCommands.invalidateContext("user");
+        assertEquals(1, command.parse("user", "restricted").getMatches().size());
+    }
+
+    @Test
+    public void testContextKeyResolvedOncePerParse() {
+        AtomicInteger keyResolutions = new AtomicInteger();
+        BlueCommands<String> blueCommands = new BlueCommands<>();
+        blueCommands.setAnnotationContextPredicate(Restricted.class, (restricted, context) -> true);
+        blueCommands.setContextCache(context -> {
+            keyResolutions.incrementAndGet();
+            return context;
+        }, 16, Duration.ofMinutes(1));
+        var command = blueCommands.createCommand(new ValidationHolder());
+
+        assertEquals(1, command.parse("user", "validation two").getMatches().size());
+        assertEquals(1, keyResolutions.get());
+
+        keyResolutions.set(0);
+        assertTrue(command.isValid("user"));
+        assertEquals(1, keyResolutions.get());
+    }
+
+    @Test
+    public void testExpiringCacheEviction() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1));
+        for (int i = 0; i < 1000; i++)
+            cache.put(i, "value" + i);
+
+        int cached = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (cache.get(i) != null) cached++;
+        }
+        assertTrue(cached <= 10, "the cache is bounded");
+        assertEquals("value999", cache.get(999));
+
+        ExpiringCache<Integer, String> expired = new ExpiringCache<>(10, Duration.ZERO);
+        expired.put(1, "value");
+        assertNull(expired.get(1));
+    }
+
+    @Test
+    public void testValidCommands() {
+        BlueCommands<String> blueCommands = new BlueCommands<>();
+        blueCommands.setAnnotationContextPredicate(Restricted.class, (restricted, context) ->
+                restricted == null || context.equals("admin")
+        );
+        var command = blueCommands.createCommand(new EchoHolder());
+        var tree = command.compile();
+
+        Set<de.bluecolored.bluecommands.Command<String, Object>> adminCommands = tree.getValidCommands("admin");
+        Set<de.bluecolored.bluecommands.Command<String, Object>> userCommands = tree.getValidCommands("user");
+        assertTrue(adminCommands.contains(command));
+        assertTrue(userCommands.contains(command));
+
+        for (var subCommand : command.getSubCommands()) {
+            assertEquals(subCommand.isValid("admin"), adminCommands.contains(subCommand));
+            assertEquals(subCommand.isValid("user"), userCommands.contains(subCommand));
+        }
+        assertTrue(adminCommands.size() > userCommands.size());
+    }
+
+    @Test
+    public void testCreateCommands() {
+        BlueCommands<Object> blueCommands = new BlueCommands<>();
+        var command = blueCommands.createCommands(List.of(new EchoHolder(), new OtherHolder()));
+
+        assertEquals(1, command.parse(null, "echo value").getMatches().size());
+        assertEquals(1, command.parse(null, "other literal").getMatches().size());
+        assertEquals(1, command.parse(null, "other holder").getMatches().size());
+
+        // both "other" literals are merged into one
+        assertEquals(1, command.getSubCommands().stream()
+                .filter(c -> c instanceof LiteralCommand && ((LiteralCommand<?, ?>) c).getLiteral().equals("other"))
+                .count());
+    }
+
+    @Test
+    public void testParallelCreateCommands() {
+        List<Object> holders = List.of(this, new EchoHolder(), new OtherHolder());
+
+        BlueCommands<Object> blueCommands = new BlueCommands<>();
+        var sequential = blueCommands.createCommands(holders);
+        var parallel = blueCommands.createCommands(holders, ForkJoinPool.commonPool());
+        assertEquals(describeTree(sequential), describeTree(parallel));
+
+        for (String input : List.of("test arg1 arg2", "echo priority", "other count 2", "other ")) {
+            assertEquals(describe(sequential.parse(null, input)), describe(parallel.parse(null, input)));
+        }
+    }
+
+    @Test
+    public void testHolderModelReuse() {
+        BlueCommands<Object> blueCommands = new BlueCommands<>();
+        OtherHolder holder1 = new OtherHolder(), holder2 = new OtherHolder();
+        var command1 = blueCommands.createCommand(holder1);
+        var command2 = blueCommands.createCommand(holder2);
+
+        command2.parse(null, "other count 5").getMatches().iterator().next().execute();
+        assertEquals(0, holder1.count);
+        assertEquals(5, holder2.count);
+
+        command1.parse(null, "other count 3").getMatches().iterator().next().execute();
+        assertEquals(3, holder1.count);
+
+        // changed argument-parsers are used for commands created afterwards
+        blueCommands.setArgumentParserForArgumentType(int.class, NumberArgumentParser.<Object>forIntegers().withBounds(0, 4));
+        assertTrue(blueCommands.createCommand(holder1).parse(null, "other count 5").getMatches().isEmpty());
+        assertEquals(1, command1.parse(null, "other count 5").getMatches().size());
+    }
+
+    @Test
+    public void testCommandSnapshot() throws IOException {
+        Path file = Files.createTempFile("bluecommands", ".snapshot");
+        Files.delete(file);
+        try {
+            OtherHolder otherHolder = new OtherHolder();
+            List<Object> holders = List.of(this, new EchoHolder(), otherHolder);
+
+            var created = new BlueCommands<>().createCommands(holders, file);
+            assertTrue(Files.exists(file));
+            assertInstanceOf(MethodCommandExecutable.class, created.parse(null, "echo value").getMatches().iterator().next().getExecutable());
+
+            var loaded = new BlueCommands<>().createCommands(holders, file);
+            assertFalse(loaded.parse(null, "echo value").getMatches().iterator().next().getExecutable() instanceof MethodCommandExecutable);
+
+            for (String input : List.of("test arg1 arg2", "test arg1 ", "test ", "echo priority", "other ", "other count 4", "restricted")) {
+                assertEquals(describe(created.parse(null, input)), describe(loaded.parse(null, input)));
+                assertEquals(allSuggestions(created.parse(null, input)), allSuggestions(loaded.parse(null, input)));
+            }
+
+            loaded.parse(null, "other count 4").getMatches().iterator().next().execute();
+            assertEquals(4, otherHolder.count);
+
+            // the snapshot is not used for different holders
+            var rebuilt = new BlueCommands<>().createCommands(List.of(new OtherHolder()), file);
+            assertInstanceOf(MethodCommandExecutable.class, rebuilt.parse(null, "other holder").getMatches().iterator().next().getExecutable());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testConcurrentSnapshotLoading(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("commands.snapshot");
+        List<Object> holders = List.of(new OtherHolder(), new ValidationHolder());
+        int nodeCount = countNodes(new BlueCommands<>().createCommands(holders, file));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int run = 0; run < 50; run++) {
+                var loaded = new BlueCommands<>().createCommands(holders, file);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> counts = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    counts.add(executor.submit(() -> {
+                        start.await();
+                        return countNodes(loaded);
+                    }));
+                }
+                start.countDown();
+
+                for (Future<Integer> count : counts)
+                    assertEquals(nodeCount, (int) count.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSnapshotErrors(@TempDir Path directory) throws IOException {
+        List<Object> holders = List.of(new OtherHolder());
+
+        // the parent of the snapshot-file is a file, so the snapshot can not be written
+        Path blocked = Files.createFile(directory.resolve("blocked")).resolve("commands.snapshot");
+        List<Exception> errors = new ArrayList<>();
+        var command = new BlueCommands<>().createCommands(holders, blocked, errors::add);
+        assertEquals(1, command.parse(null, "other holder").getMatches().size());
+        assertEquals(1, errors.size());
+
+        // a corrupted snapshot is not used, instead of failing once its subcommands are first read
+        Path file = directory.resolve("commands.snapshot");
+        new BlueCommands<>().createCommands(holders, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+        var rebuilt = new BlueCommands<>().createCommands(holders, file);
+        assertInstanceOf(MethodCommandExecutable.class, rebuilt.parse(null, "other holder").getMatches().iterator().next().getExecutable());
+    }
+
+    private static int countNodes(de.bluecolored.bluecommands.Command<?, ?> command) {
+        int count = 1;
+        for (var subCommand : command.getSubCommands())
+            count += countNodes(subCommand);
+        return count;
+    }
+
+    @Test
+    public void testIndexedMerge() {
+        var root = new de.bluecolored.bluecommands.Command<Object, Object>();
+        for (String token : List.of("a", "b")) {
+            for (int i = 0; i < 100; i++) {
+                var literal = new LiteralCommand<Object, Object>("literal" + i);
+                var sub = new LiteralCommand<Object, Object>(token);
+                sub.setExecutable((context, arguments) -> null);
+                literal.addSubCommand(sub);
+                root.addSubCommand(literal);
+            }
+        }
+
+        assertEquals(100, root.getSubCommands().size());
+        assertEquals(1, root.parse(null, "literal42 b").getMatches().size());
+    }
+
+    @Test
+    public void testExecuteMode() {
+        var result = echoCommands.parse(null, "echo value", ParseMode.EXECUTE);
+        assertEquals(1, result.getMatches().size());
+        assertTrue(result.getFailures().isEmpty());
+
+        result = echoCommands.parse(null, "test arg1 arg2 arg3 arg4", ParseMode.EXECUTE);
+        assertTrue(result.getMatches().isEmpty());
+        assertEquals(1, result.getFailures().size());
+
+        var failure = result.getFailures().iterator().next();
+        assertEquals("Too many arguments.", failure.getReason());
+        assertEquals(19, failure.getPosition());
+        assertTrue(failure.getSuggestions().isEmpty());
+    }
+
+    @Test
+    public void testParseBest() {
+        assertEquals(2, echoCommands.parse(null, "echo priority").getMatches().size());
+
+        var result = echoCommands.parseBest(null, "echo priority");
+        assertEquals(1, result.getMatches().size());
+        assertEquals("priority", result.getMatches().iterator().next().execute());
+
+        result = echoCommands.parseBest(null, "echo");
+        assertTrue(result.getMatches().isEmpty());
+        assertEquals(1, result.getFailures().size());
+    }
+
+    @Test
+    public void testEqualPriorityOrder() {
+        // matches with the same priority are found in the order the commands were added, literals are not preferred
+        for (boolean literalFirst : new boolean[]{ true, false }) {
+            var root = new de.bluecolored.bluecommands.Command<Object, Object>();
+            var literal = new LiteralCommand<Object, Object>("same");
+            literal.setExecutable((context, arguments) -> "literal");
+            var argument = new ArgumentCommand<Object, Object>("value", StringArgumentParser.word(), false);
+            argument.setExecutable((context, arguments) -> "argument");
+            root.addSubCommand(literalFirst ? literal : argument);
+            root.addSubCommand(literalFirst ? argument : literal);
+
+            String first = literalFirst ? "literal" : "argument";
+            var matches = new ArrayList<>(root.parse(null, "same").getMatches());
+            assertEquals(2, matches.size());
+            assertEquals(first, matches.get(0).execute());
+            assertEquals(first, root.parseBest(null, "same").getMatches().iterator().next().execute());
+        }
+    }
+
+    @Test
+    public void testParseFilter() {
+        @SuppressWarnings("unchecked")
+        var commands = (de.bluecolored.bluecommands.Command<Object, Object>) echoCommands;
+
+        var result = commands.parseBest(null, new InputReader("echo priority"), (command, position) ->
+                !(command instanceof LiteralCommand && ((LiteralCommand<?, ?>) command).getLiteral().equals("priority"))
+        );
+        assertEquals(1, result.getMatches().size());
+        assertEquals(Map.of("value", "priority"), result.getMatches().iterator().next().getArguments());
+
+        result = commands.parseBest(null, new InputReader("echo value"), (command, position) -> position != 5);
+        assertTrue(result.getMatches().isEmpty());
+    }
+
+    @Test
+    public void testParseLiteralPath() {
+        BlueCommands<Object> blueCommands = new BlueCommands<>();
+        var root = blueCommands.createCommand(new OtherHolder());
+        var other = (LiteralCommand<Object, Object>) root.getSubCommands().iterator().next();
+        var count = (LiteralCommand<Object, Object>) other.getSubCommands().stream()
+                .filter(command -> ((LiteralCommand<?, ?>) command).getLiteral().equals("count"))
+                .findAny().orElseThrow();
+
+        List<Integer> filtered = new ArrayList<>();
+        ParseFilter<Object, Object> filter = (command, position) -> filtered.add(position);
+
+        // the literals before the last one of the path are followed without being parsed again
+        var result = root.parseBest(null, new InputReader("other count 5"), List.of(other, count), filter);
+        assertEquals(1, result.getMatches().size());
+        var match = result.getMatches().iterator().next();
+        assertEquals(Map.of("count", 5), match.getArguments());
+        assertEquals(4, match.getCommandStack().size());
+        assertSame(other, match.getCommandStack().get(1).getCommand());
+        assertEquals(List.of(6, 12), filtered);
+
+        // a path that does not match the input falls back to parsing the whole input
+        result = root.parseBest(null, new InputReader("other holder"), List.of(other, count), filter);
+        assertEquals(1, result.getMatches().size());
+    }
+
+    @Test
+    public void testNumberParsing() throws CommandParseException {
+        NumberArgumentParser<Object, Long> longs = NumberArgumentParser.<Object>forLongs().withMax(0x1p53);
+        assertEquals((Long) 9007199254740992L, longs.parse(null, "9007199254740992"));
+        assertThrows(CommandParseException.class, () -> longs.parse(null, "9007199254740993"));
+        assertEquals((Long) Long.MIN_VALUE, longs.parse(null, "-9223372036854775808"));
+
+        NumberArgumentParser<Object, Byte> bytes = NumberArgumentParser.forBytes();
+        assertEquals((Byte) (byte) -128, bytes.parse(null, "-128"));
+        assertThrows(CommandParseException.class, () -> bytes.parse(null, "128"));
+        assertThrows(CommandParseException.class, () -> bytes.parse(null, "-"));
+
+        NumberArgumentParser<Object, Double> doubles = NumberArgumentParser.forDoubles();
+        assertEquals((Double) 0.1, doubles.parse(null, "0.1"));
+        assertEquals((Double) (-2.5e-300), doubles.parse(null, "-2.5e-300"));
+        assertEquals((Double) 1.2345678901234567, doubles.parse(null, "1.2345678901234567"));
+        assertThrows(CommandParseException.class, () -> doubles.parse(null, "abc"));
+        assertInstanceOf(ArgumentMismatch.class, doubles.tryParse(null, new InputReader("abc")));
+    }
+
+    @Test
+    public void testArgumentMismatch() {
+        NumberArgumentParser<Object, Integer> numbers = NumberArgumentParser.forIntegers();
+        AtomicInteger parseCount = new AtomicInteger(), exceptionCount = new AtomicInteger();
+        ArgumentParser<Object, Integer> parser = new ArgumentParser<>() {
+            @Override
+            public Integer parse(Object context, InputReader input) throws CommandParseException {
+                return numbers.parse(context, input);
+            }
+
+            @Override
+            public Object tryParse(Object context, InputReader input) throws CommandParseException {
+                parseCount.incrementAndGet();
+                Object result = numbers.tryParse(context, input);
+                if (!(result instanceof ArgumentMismatch)) return result;
+                return (ArgumentMismatch) () -> {
+                    exceptionCount.incrementAndGet();
+                    return ((ArgumentMismatch) result).createException();
+                };
+            }
+
+            @Override
+            public List<Suggestion> suggest(Object context, InputReader input) {
+                return List.of();
+            }
+        };
+
+        var root = new de.bluecolored.bluecommands.Command<Object, Object>();
+        var literal = new LiteralCommand<Object, Object>("abc");
+        literal.setExecutable((context, arguments) -> "literal");
+        root.addSubCommand(literal);
+        var argument = new ArgumentCommand<Object, Object>("number", parser, false);
+        argument.setExecutable(new CommandExecutable<>() {
+            @Override
+            public Object execute(Object context, Map<String, Object> arguments) {
+                return arguments.get("number");
+            }
+
+            @Override
+            public int getPriority() {
+                return 1;
+            }
+        });
+        root.addSubCommand(argument);
+
+        // the failure of the argument is not needed once the literal matched, so no exception is created for it
+        assertEquals("literal", root.parseBest(null, "abc").getMatches().iterator().next().execute());
+        assertEquals(1, parseCount.get());
+        assertEquals(0, exceptionCount.get());
+
+        var result = root.parse(null, "xyz");
+        assertTrue(result.getMatches().isEmpty());
+        assertEquals(1, exceptionCount.get());
+        assertTrue(result.getFailures().stream().anyMatch(failure -> failure.getReason().equals("'xyz' is not a valid Integer")));
+    }
+
+    @Test
+    public void testArgumentMemoization() {
+        AtomicInteger parseCount = new AtomicInteger();
+        var root = new de.bluecolored.bluecommands.Command<Object, String>();
+        var parser = new StringWithSuggestions<Object>() {
+            @Override
+            public String parse(Object context, String string) {
+                parseCount.incrementAndGet();
+                return string;
+            }
+        };
+        for (String id : List.of("first", "second")) {
+            var argument = new ArgumentCommand<Object, String>(id, parser, false);
+            argument.setExecutable((context, arguments) -> id);
+            root.addSubCommand(argument);
+        }
+
+        assertEquals(2, root.parse(null, "value").getMatches().size());
+        assertEquals(1, parseCount.get());
+
+        var nonMemoizable = new StringWithSuggestions<Object>() {
+            @Override
+            public boolean isMemoizable() {
+                return false;
+            }
+
+            @Override
+            public String parse(Object context, String string) {
+                parseCount.incrementAndGet();
+                return string;
+            }
+        };
+        root = new de.bluecolored.bluecommands.Command<>();
+        for (String id : List.of("first", "second")) {
+            var argument = new ArgumentCommand<Object, String>(id, nonMemoizable, false);
+            argument.setExecutable((context, arguments) -> id);
+            root.addSubCommand(argument);
+        }
+
+        parseCount.set(0);
+        assertEquals(2, root.parse(null, "value").getMatches().size());
+        assertEquals(2, parseCount.get());
+    }
+
     private static Set<String> allSuggestions(ParseResult<?, ?> result) {
         return result.getFailures().stream()
                 .map(ParseFailure::getSuggestions)
@@ -141,6 +750,34 @@ public class BlueCommandsTest {
                 .collect(Collectors.toSet());
     }
 
+    private static String describeTree(de.bluecolored.bluecommands.Command<?, ?> command) {
+        StringBuilder description = new StringBuilder(command.getClass().getSimpleName());
+        if (command instanceof LiteralCommand) description.append(' ').append(((LiteralCommand<?, ?>) command).getLiteral());
+        if (command instanceof ArgumentCommand) description.append(' ').append(((ArgumentCommand<?, ?>) command).getArgumentId());
+        if (command.getExecutable() != null) description.append(" priority=").append(command.getExecutable().getPriority());
+        description.append(" [");
+        for (var subCommand : command.getSubCommands())
+            description.append(describeTree(subCommand)).append(", ");
+        return description.append(']').toString();
+    }
+
+    private static Set<String> describe(ParseResult<?, ?> result) {
+        Set<String> description = new HashSet<>();
+        for (var match : result.getMatches())
+            description.add("match " + match.getArguments());
+        for (var failure : result.getFailures())
+            description.add("failure " + failure.getPosition() + " " + failure.getReason() + " " + failure.getSuggestions().stream()
+                    .map(Suggestion::getString)
+                    .collect(Collectors.toList()));
+        return description;
+    }
+
+    private static List<String> suggestionStrings(List<Suggestion> suggestions) {
+        return suggestions.stream()
+                .map(Suggestion::getString)
+                .collect(Collectors.toList());
+    }
+
     @Command("test <with> [some] <arguments>")
     public void testWithArgs(
             @ParserType(StringWithSuggestions.class) @Argument("with") String with,
@@ -153,6 +790,70 @@ public class BlueCommandsTest {
             @ParserType(StringWithSuggestions4.class) @Argument("single-argument") String singleArgument
     ) {}
 
+    public static class EchoHolder {
+
+        @Command("other literal")
+        public void otherLiteral() {}
+
+        @Command("echo <value>")
+        public String echo(@Argument("value") String value) {
+            return value;
+        }
+
+        @Command("echo priority")
+        @Priority(1)
+        public String echoPriority() {
+            return "priority";
+        }
+
+        @Command("fail")
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+
+        @Command("restricted")
+        @Restricted
+        public void restricted() {}
+
+    }
+
+    public static class OtherHolder {
+
+        private int count;
+
+        @Command("other holder")
+        public void otherHolder() {}
+
+        @Command("other count <count>")
+        public void count(@Argument("count") int count) {
+            this.count += count;
+        }
+
+    }
+
+    public static class ResolverHolder {
+
+        @Command("resolve")
+        public CharSequence resolve(CharSequence value) {
+            return value;
+        }
+
+    }
+
+    public static class ValidationHolder {
+
+        @Command("validation one")
+        public void one() {}
+
+        @Command("validation two")
+        public void two() {}
+
+    }
+
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Restricted {}
+
     public static class StringWithSuggestions<C> extends SimpleArgumentParser<C, String> implements ArgumentParser<C, String> {
 
         public StringWithSuggestions() {
@@ -0,0 +1,59 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+    id("com.diffplug.spotless") version "6.1.2"
+}
+
+group = "de.bluecolored"
+
+val javaTarget = 11
+java {
+    sourceCompatibility = JavaVersion.toVersion(javaTarget)
+    targetCompatibility = JavaVersion.toVersion(javaTarget)
+}
+
+repositories {
+    mavenCentral()
+    maven {
+        setUrl("https://libraries.minecraft.net")
+    }
+}
+
+dependencies {
+    jmh ( project(":bluecommands-core") )
+    jmh ( project(":bluecommands-brigadier") )
+    jmh ("com.mojang:brigadier:1.0.17")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("ms")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+
+    // the gc-profiler reports the allocated bytes per operation (gc.alloc.rate.norm)
+    profilers.set(listOf("gc"))
+
+    resultFormat.set("JSON")
+
+    // allow running a subset, e.g.: ./gradlew :bluecommands-jmh:jmh -Pjmh.includes=ParseBenchmark
+    (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+}
+
+spotless {
+    java {
+        target ("src/*/java/**/*.java")
+
+        licenseHeaderFile("../LICENSE_HEADER")
+        indentWithSpaces()
+        trimTrailingWhitespace()
+    }
+}
+
+tasks.withType(JavaCompile::class).configureEach {
+    options.apply {
+        encoding = "utf-8"
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.jmh;
+
+import com.mojang.brigadier.tree.CommandNode;
+import de.bluecolored.bluecommands.Command;
+import de.bluecolored.bluecommands.brigadier.BrigadierBridge;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the brigadier-nodes for the generated command-trees.<br>
+ * The {@link NodeCount} counters report how many distinct nodes have been created, which is what ends up in the
+ * commands-packet sent to clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BrigadierBenchmark {
+
+    @Param({"10", "200", "2000"})
+    public int size;
+
+    @Param({"2"})
+    public int depth;
+
+    @Param({"0", "2", "4", "8"})
+    public int optionals;
+
+    private Command<Object, Object> command;
+
+    @Setup
+    public void setup() {
+        command = CommandTrees.generate(size, depth, optionals);
+    }
+
+    @Benchmark
+    public Collection<CommandNode<Object>> createCommandNodes(NodeCount nodeCount) {
+        return BrigadierBridge.createCommandNodes(command);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class NodeCount {
+
+        /**
+         * The number of distinct nodes of one created tree.
+         */
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void count(BrigadierBenchmark benchmark) {
+            Set<CommandNode<Object>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<CommandNode<Object>> queue = new ArrayDeque<>(BrigadierBridge.createCommandNodes(benchmark.command));
+            while (!queue.isEmpty()) {
+                CommandNode<Object> node = queue.poll();
+                if (visited.add(node)) queue.addAll(node.getChildren());
+            }
+            nodes = visited.size();
+        }
+
+    }
+
+}
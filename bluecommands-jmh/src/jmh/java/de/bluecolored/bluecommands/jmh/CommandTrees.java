@@ -0,0 +1,100 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.jmh;
+
+import de.bluecolored.bluecommands.ArgumentCommand;
+import de.bluecolored.bluecommands.Command;
+import de.bluecolored.bluecommands.LiteralCommand;
+import de.bluecolored.bluecommands.parsers.ArgumentParser;
+import de.bluecolored.bluecommands.parsers.NumberArgumentParser;
+import de.bluecolored.bluecommands.parsers.StringArgumentParser;
+
+/**
+ * Generates synthetic command-trees for the benchmarks.
+ * <p>
+ * Every generated command has the form <code>c&lt;i&gt; s0 &lt;a1&gt; s2 &lt;a3&gt; ... [o0] [o1] ...</code>:
+ * a unique root-literal, followed by <code>depth</code> tokens alternating between literals and (word-)arguments,
+ * followed by <code>optionals</code> optional arguments (alternating between integer- and decimal-arguments,
+ * so they end up in different brigadier-nodes).
+ */
+final class CommandTrees {
+
+    static final Object CONTEXT = new Object();
+
+    private static final ArgumentParser<Object, ?> WORD_PARSER = StringArgumentParser.word();
+    private static final ArgumentParser<Object, ?> INT_PARSER = NumberArgumentParser.forIntegers();
+    private static final ArgumentParser<Object, ?> DOUBLE_PARSER = NumberArgumentParser.forDoubles();
+
+    private CommandTrees() {}
+
+    static Command<Object, Object> generate(int size, int depth, int optionals) {
+        Command<Object, Object> root = new Command<>();
+        for (int i = 0; i < size; i++) {
+            root.addSubCommand(generateCommand(i, depth, optionals));
+        }
+        return root;
+    }
+
+    static Command<Object, Object> generateCommand(int index, int depth, int optionals) {
+        Command<Object, Object> command = new Command<>();
+        command.setExecutable((context, arguments) -> arguments);
+
+        for (int o = optionals - 1; o >= 0; o--) {
+            Command<Object, Object> parent = new ArgumentCommand<>("o" + o, o % 2 == 0 ? INT_PARSER : DOUBLE_PARSER, true);
+            parent.addSubCommand(command);
+            command = parent;
+        }
+
+        for (int d = depth - 1; d >= 0; d--) {
+            Command<Object, Object> parent = d % 2 == 0 ?
+                    new LiteralCommand<>("s" + d) :
+                    new ArgumentCommand<>("a" + d, WORD_PARSER, false);
+            parent.addSubCommand(command);
+            command = parent;
+        }
+
+        Command<Object, Object> literal = new LiteralCommand<>("c" + index);
+        literal.addSubCommand(command);
+        return literal;
+    }
+
+    /**
+     * Creates a complete input for the command with the given index, providing values for the
+     * first <code>providedOptionals</code> optional arguments.
+     */
+    static String input(int index, int depth, int providedOptionals) {
+        StringBuilder input = new StringBuilder("c").append(index);
+        for (int d = 0; d < depth; d++) {
+            input.append(' ');
+            if (d % 2 == 0) input.append('s').append(d);
+            else input.append("value").append(d);
+        }
+        for (int o = 0; o < providedOptionals; o++) {
+            input.append(' ').append(o * 10);
+        }
+        return input.toString();
+    }
+
+}
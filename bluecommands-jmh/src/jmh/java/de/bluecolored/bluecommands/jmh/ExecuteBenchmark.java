@@ -0,0 +1,98 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.jmh;
+
+import de.bluecolored.bluecommands.*;
+import de.bluecolored.bluecommands.annotations.Argument;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecuteBenchmark {
+
+    private static final String INPUT = "tp Notch 10 64 -20";
+
+    private Holder holder;
+    private MethodCommandExecutable<Object> executable;
+    private Map<String, Object> arguments;
+    private ParseMatch<Object, Object> match;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        BlueCommands<Object> blueCommands = new BlueCommands<>();
+        holder = new Holder();
+
+        Command<Object, Object> command = blueCommands.createCommand(holder);
+        match = command.parse(CommandTrees.CONTEXT, INPUT).getMatches().iterator().next();
+        arguments = match.getArguments();
+
+        executable = new MethodCommandExecutable<>(
+                Holder.class.getMethod("teleport", Object.class, String.class, int.class, int.class, int.class),
+                holder,
+                blueCommands
+        );
+    }
+
+    @Benchmark
+    public Object execute() {
+        return executable.execute(CommandTrees.CONTEXT, arguments);
+    }
+
+    @Benchmark
+    public Object executeMatch() {
+        return match.execute();
+    }
+
+    @Benchmark
+    public Object directCall() {
+        return holder.teleport(
+                CommandTrees.CONTEXT,
+                (String) arguments.get("player"),
+                (Integer) arguments.get("x"),
+                (Integer) arguments.get("y"),
+                (Integer) arguments.get("z")
+        );
+    }
+
+    public static class Holder {
+
+        @de.bluecolored.bluecommands.annotations.Command("tp <player> <x> <y> <z>")
+        public int teleport(
+                Object context,
+                @Argument("player") String player,
+                @Argument("x") int x,
+                @Argument("y") int y,
+                @Argument("z") int z
+        ) {
+            return player.length() + x + y + z;
+        }
+
+    }
+
+}
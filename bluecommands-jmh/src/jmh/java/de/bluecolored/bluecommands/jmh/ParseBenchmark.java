@@ -0,0 +1,90 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.jmh;
+
+import de.bluecolored.bluecommands.Command;
+import de.bluecolored.bluecommands.InputReader;
+import de.bluecolored.bluecommands.ParseMode;
+import de.bluecolored.bluecommands.ParseResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark {
+
+    @Param({"10", "200", "2000"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    @Param({"0", "2"})
+    public int optionals;
+
+    @Param({"FULL", "EXECUTE", "BEST"})
+    public ParseMode mode;
+
+    private Command<Object, Object> command;
+
+    private String matchingInput;
+    private String omittedOptionalsInput;
+    private String unknownInput;
+    private String incompleteInput;
+
+    @Setup
+    public void setup() {
+        command = CommandTrees.generate(size, depth, optionals);
+
+        int index = size / 2;
+        matchingInput = CommandTrees.input(index, depth, optionals);
+        omittedOptionalsInput = CommandTrees.input(index, depth, 0);
+        unknownInput = "unknown " + matchingInput;
+        incompleteInput = "c" + index + " s0 value1 s2";
+    }
+
+    @Benchmark
+    public ParseResult<Object, Object> parseMatching() {
+        return command.parse(CommandTrees.CONTEXT, new InputReader(matchingInput), mode);
+    }
+
+    @Benchmark
+    public ParseResult<Object, Object> parseOmittedOptionals() {
+        return command.parse(CommandTrees.CONTEXT, new InputReader(omittedOptionalsInput), mode);
+    }
+
+    @Benchmark
+    public ParseResult<Object, Object> parseUnknown() {
+        return command.parse(CommandTrees.CONTEXT, new InputReader(unknownInput), mode);
+    }
+
+    @Benchmark
+    public ParseResult<Object, Object> parseIncomplete() {
+        return command.parse(CommandTrees.CONTEXT, new InputReader(incompleteInput), mode);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.jmh;
+
+import de.bluecolored.bluecommands.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the suggestions for the last word of partial inputs (e.g. while a player is typing).<br>
+ * The <code>*FullParse</code> benchmarks do the same with a full parse and filter the failures afterwards,
+ * for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SuggestBenchmark {
+
+    @Param({"10", "200", "2000"})
+    public int size;
+
+    @Param({"4"})
+    public int depth;
+
+    @Param({"0", "2"})
+    public int optionals;
+
+    private Command<Object, Object> command;
+
+    private String rootPrefixInput;
+    private String trailingSpaceInput;
+    private String partialArgumentInput;
+
+    @Setup
+    public void setup() {
+        command = CommandTrees.generate(size, depth, optionals);
+
+        int index = size / 2;
+        rootPrefixInput = "c" + index / 10;
+        trailingSpaceInput = "c" + index + " ";
+        partialArgumentInput = "c" + index + " s0 val";
+    }
+
+    @Benchmark
+    public List<Suggestion> suggestRootPrefix() {
+        return command.suggest(CommandTrees.CONTEXT, rootPrefixInput, rootPrefixInput.length());
+    }
+
+    @Benchmark
+    public List<Suggestion> suggestAfterTrailingSpace() {
+        return command.suggest(CommandTrees.CONTEXT, trailingSpaceInput, trailingSpaceInput.length());
+    }
+
+    @Benchmark
+    public List<Suggestion> suggestPartialArgument() {
+        return command.suggest(CommandTrees.CONTEXT, partialArgumentInput, partialArgumentInput.length());
+    }
+
+    @Benchmark
+    public Map<String, Suggestion> suggestRootPrefixFullParse() {
+        return suggestFullParse(rootPrefixInput);
+    }
+
+    @Benchmark
+    public Map<String, Suggestion> suggestPartialArgumentFullParse() {
+        return suggestFullParse(partialArgumentInput);
+    }
+
+    private Map<String, Suggestion> suggestFullParse(String input) {
+        ParseResult<Object, Object> result = command.parse(CommandTrees.CONTEXT, new InputReader(input));
+
+        int start = input.lastIndexOf(' ') + 1;
+        Map<String, Suggestion> suggestions = new HashMap<>();
+        for (ParseFailure<Object, Object> failure : result.getFailures()) {
+            if (failure.getPosition() != start) continue;
+            for (Suggestion suggestion : failure.getSuggestions()) {
+                suggestions.put(suggestion.getString(), suggestion);
+            }
+        }
+        return suggestions;
+    }
+
+}
@@ -0,0 +1,724 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.processor;
+
+import de.bluecolored.bluecommands.annotations.*;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.util.*;
+import java.util.regex.Matcher;
+
+/**
+ * Writes the source of the {@link de.bluecolored.bluecommands.CommandFactory} for one holder-class.<br>
+ * The generated factory creates the same command-tree as {@link de.bluecolored.bluecommands.BlueCommands#createCommand(Object)},
+ * but with the descriptions already parsed and with executables that call the command-methods directly.<br>
+ * The annotations of the command-methods are written as constants as well, so the generated code does not need any
+ * reflection.
+ */
+class CommandFactoryWriter {
+
+    private static final java.util.regex.Pattern ARGUMENT_PATTERN = java.util.regex.Pattern.compile("^<(.*)>$");
+    private static final java.util.regex.Pattern OPTIONAL_ARGUMENT_PATTERN = java.util.regex.Pattern.compile("^\\[(.*)]$");
+
+    private static final String PACKAGE = "de.bluecolored.bluecommands.";
+
+    private final ProcessingEnvironment processingEnv;
+    private final Elements elements;
+    private final Types types;
+
+    private final TypeElement holder;
+    private final String packageName;
+    private final String factorySimpleName;
+    private final String[] descriptionPrefixes;
+    private final List<ExecutableElement> methods;
+    private final Map<TypeElement, Integer> annotationClasses;
+
+    CommandFactoryWriter(ProcessingEnvironment processingEnv, TypeElement holder) {
+        this.processingEnv = processingEnv;
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+
+        this.holder = holder;
+        this.packageName = elements.getPackageOf(holder).getQualifiedName().toString();
+
+        // same as BlueCommands.getCommandFactoryName(Class)
+        String binaryName = elements.getBinaryName(holder).toString();
+        this.factorySimpleName = binaryName.substring(binaryName.lastIndexOf('.') + 1).replace('$', '_') + "_CommandFactory";
+
+        Command holderCommand = holder.getAnnotation(Command.class);
+        this.descriptionPrefixes = holderCommand != null ? holderCommand.value() : new String[]{ "" };
+
+        this.methods = new ArrayList<>();
+        for (Element element : holder.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.METHOD && element.getAnnotation(Command.class) != null)
+                methods.add((ExecutableElement) element);
+        }
+
+        this.annotationClasses = new LinkedHashMap<>();
+    }
+
+    String getFactoryName() {
+        return packageName.isEmpty() ? factorySimpleName : packageName + "." + factorySimpleName;
+    }
+
+    /**
+     * Reports all problems that would make the generated factory fail to compile or to create the commands,
+     * returns false if there are any.
+     */
+    boolean validate() {
+        boolean valid = true;
+
+        for (Element element = holder; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                error("Classes with command-methods can not be private.", holder);
+                valid = false;
+            }
+        }
+
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                error("Command-methods can not be private.", method);
+                valid = false;
+                continue;
+            }
+
+            Set<String> missingArguments = new LinkedHashSet<>();
+            for (String descriptionPrefix : descriptionPrefixes) {
+                for (String description : method.getAnnotation(Command.class).value()) {
+                    for (String token : tokenize(descriptionPrefix + " " + description)) {
+                        Token parsed = parseToken(token);
+                        if (parsed.argumentId != null && findArgumentParameter(method, parsed.argumentId) == null)
+                            missingArguments.add(parsed.argumentId);
+                    }
+                }
+            }
+            for (String argumentId : missingArguments) {
+                error(String.format("Argument '%s' is missing in method-signature.", argumentId), method);
+                valid = false;
+            }
+
+            Set<TypeElement> annotationTypes = new LinkedHashSet<>();
+            for (AnnotationMirror annotation : getRuntimeAnnotations(method))
+                collectReferencedTypes(annotation, annotationTypes);
+            for (TypeElement type : annotationTypes) {
+                if (isAccessible(type)) continue;
+                error(String.format("Type '%s' is used in an annotation of a command-method and needs to be accessible from package '%s'.",
+                        type.getQualifiedName(), packageName), method);
+                valid = false;
+            }
+        }
+
+        return valid;
+    }
+
+    String write() {
+        String holderType = typeName(holder.asType());
+        StringBuilder out = new StringBuilder();
+
+        out.append("// generated by the bluecommands-processor, do not edit\n");
+        if (!packageName.isEmpty()) out.append("package ").append(packageName).append(";\n\n");
+
+        out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        out.append("public final class ").append(factorySimpleName).append(" implements ").append(PACKAGE).append("CommandFactory {\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public Class<?> getHolderType() {\n");
+        out.append("        return ").append(holderType).append(".class;\n");
+        out.append("    }\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public <C> ").append(PACKAGE).append("Command<C, Object> createCommand(")
+                .append(PACKAGE).append("BlueCommands<C> blueCommands, Object holderObject) {\n");
+        out.append("        ").append(holderType).append(" holder = (").append(holderType).append(") holderObject;\n");
+        out.append("        ").append(PACKAGE).append("Command<C, Object> root = new ").append(PACKAGE).append("Command<>();\n");
+        out.append("        ").append(PACKAGE).append("Command<C, Object> command, parent;\n");
+
+        for (int m = 0; m < methods.size(); m++) {
+            out.append("\n");
+            writeMethodSetup(out, m);
+        }
+
+        // same order as BlueCommands.createCommand(Object): all methods for each prefix
+        for (String descriptionPrefix : descriptionPrefixes) {
+            for (int m = 0; m < methods.size(); m++) {
+                out.append("\n");
+                writeMethodCommands(out, m, descriptionPrefix);
+            }
+        }
+
+        out.append("\n        return root;\n");
+        out.append("    }\n");
+
+        writeHelpers(out);
+
+        for (int m = 0; m < methods.size(); m++) {
+            out.append("\n");
+            writeExecutable(out, m);
+        }
+
+        // the annotation-classes are collected while writing the executables
+        for (var annotationClass : annotationClasses.entrySet()) {
+            out.append("\n");
+            writeAnnotationClass(out, annotationClass.getKey(), annotationClass.getValue());
+        }
+
+        out.append("\n}\n");
+        return out.toString();
+    }
+
+    /**
+     * Creates the executable and resolves the argument-parsers once for each method, they are shared by all its commands.
+     */
+    private void writeMethodSetup(StringBuilder out, int m) {
+        ExecutableElement method = methods.get(m);
+        List<? extends VariableElement> parameters = method.getParameters();
+
+        out.append("        // ").append(methodSignature(method)).append("\n");
+        out.append("        ").append(PACKAGE).append("CommandExecutable<C, Object> executable").append(m).append(";\n");
+        for (int p = 0; p < parameters.size(); p++) {
+            if (parameters.get(p).getAnnotation(Argument.class) == null) continue;
+            out.append("        ").append(PACKAGE).append("parsers.ArgumentParser<C, ?> parser").append(m).append('_').append(p).append(";\n");
+        }
+
+        out.append("        try {\n");
+        out.append("            executable").append(m).append(" = new Executable").append(m).append("<>(blueCommands, holder);\n");
+        for (int p = 0; p < parameters.size(); p++) {
+            VariableElement parameter = parameters.get(p);
+            Argument argument = parameter.getAnnotation(Argument.class);
+            if (argument == null) continue;
+
+            out.append("            parser").append(m).append('_').append(p).append(" = ")
+                    .append(argumentParserExpression(parameter, argument.value())).append(";\n");
+        }
+        writeCatch(out, method);
+    }
+
+    private void writeMethodCommands(StringBuilder out, int m, String descriptionPrefix) {
+        ExecutableElement method = methods.get(m);
+        List<? extends VariableElement> parameters = method.getParameters();
+
+        out.append("        // ").append(stringLiteral(descriptionPrefix)).append(' ').append(methodSignature(method)).append("\n");
+        out.append("        try {\n");
+
+        boolean first = true;
+        for (String description : method.getAnnotation(Command.class).value()) {
+            if (!first) out.append("\n");
+            first = false;
+
+            out.append("            command = new ").append(PACKAGE).append("Command<>();\n");
+            out.append("            command.setExecutable(executable").append(m).append(");\n");
+
+            List<String> tokens = tokenize(descriptionPrefix + " " + description);
+            for (int t = tokens.size() - 1; t >= 0; t--) {
+                Token token = parseToken(tokens.get(t));
+                if (token.argumentId == null) {
+                    out.append("            parent = new ").append(PACKAGE).append("LiteralCommand<>(")
+                            .append(stringLiteral(token.literal)).append(");\n");
+                } else {
+                    int p = parameters.indexOf(findArgumentParameter(method, token.argumentId));
+                    out.append("            parent = new ").append(PACKAGE).append("ArgumentCommand<>(")
+                            .append(stringLiteral(token.argumentId)).append(", parser").append(m).append('_').append(p).append(", ")
+                            .append(token.optional).append(");\n");
+                }
+                out.append("            parent.addSubCommand(command);\n");
+                out.append("            command = parent;\n");
+            }
+
+            out.append("            root.addSubCommand(command);\n");
+        }
+
+        writeCatch(out, method);
+    }
+
+    private void writeCatch(StringBuilder out, ExecutableElement method) {
+        out.append("        } catch (").append(PACKAGE).append("CommandSetupException ex) {\n");
+        out.append("            throw new ").append(PACKAGE).append("CommandSetupException(ex.getMessage() + \"\\nMethod: \" + ")
+                .append(stringLiteral(methodSignature(method))).append(", ex);\n");
+        out.append("        }\n");
+    }
+
+    private void writeHelpers(StringBuilder out) {
+        out.append("\n");
+        out.append("    private static <C, T> T contextParameter(").append(PACKAGE).append("BlueCommands<C> blueCommands, C context, Class<T> type, String method, String parameter) {\n");
+        out.append("        java.util.function.Function<C, T> contextResolver = blueCommands.getContextResolver(type);\n");
+        out.append("        if (contextResolver != null) return contextResolver.apply(context);\n");
+        out.append("        if (type.isInstance(context)) return (T) context;\n");
+        out.append("        throw new ").append(PACKAGE).append("CommandSetupException(\"Failed to resolve parameter for command execution.\\nMethod: \" + method + \"\\nParameter: \" + parameter);\n");
+        out.append("    }\n");
+    }
+
+    private void writeExecutable(StringBuilder out, int m) {
+        ExecutableElement method = methods.get(m);
+        List<? extends VariableElement> parameters = method.getParameters();
+        String holderType = typeName(holder.asType());
+        String signature = stringLiteral(methodSignature(method));
+
+        out.append("    private static final class Executable").append(m).append("<C> implements ")
+                .append(PACKAGE).append("CommandExecutable<C, Object> {\n\n");
+
+        // the annotations of the method that are passed to the context-predicates, same as Method#getAnnotation
+        List<AnnotationMirror> annotations = getRuntimeAnnotations(method);
+        out.append("        private static final java.util.Map<Class<? extends java.lang.annotation.Annotation>, java.lang.annotation.Annotation> ANNOTATIONS = ");
+        if (annotations.isEmpty()) {
+            out.append("java.util.Map.of();\n\n");
+        } else {
+            out.append("java.util.Map.ofEntries(");
+            for (int a = 0; a < annotations.size(); a++) {
+                AnnotationMirror annotation = annotations.get(a);
+                if (a > 0) out.append(',');
+                out.append("\n                java.util.Map.entry(").append(typeName(annotation.getAnnotationType())).append(".class, ")
+                        .append(annotationExpression(annotation)).append(')');
+            }
+            out.append("\n        );\n\n");
+        }
+
+        out.append("        private final ").append(PACKAGE).append("BlueCommands<C> blueCommands;\n");
+        out.append("        private final ").append(holderType).append(" holder;\n");
+
+        out.append("\n        private Executable").append(m).append("(").append(PACKAGE).append("BlueCommands<C> blueCommands, ")
+                .append(holderType).append(" holder) {\n");
+        out.append("            this.blueCommands = blueCommands;\n");
+        out.append("            this.holder = holder;\n");
+        out.append("        }\n\n");
+
+        // execute
+        out.append("        @Override\n");
+        out.append("        public Object execute(C context, java.util.Map<String, Object> arguments) {\n");
+
+        // the parameters are resolved the same as in MethodCommandExecutable, context-resolvers are looked up on execution
+        for (int p = 0; p < parameters.size(); p++) {
+            VariableElement parameter = parameters.get(p);
+            String type = boxedTypeName(parameter.asType());
+            out.append("            ").append(type).append(" p").append(p).append(" = ");
+
+            Argument argument = parameter.getAnnotation(Argument.class);
+            if (argument != null) {
+                out.append('(').append(type).append(") arguments.get(").append(stringLiteral(argument.value())).append(");\n");
+            } else {
+                out.append("contextParameter(blueCommands, context, ").append(typeName(parameter.asType())).append(".class, ")
+                        .append(signature).append(", ").append(stringLiteral(parameter.getSimpleName().toString())).append(");\n");
+            }
+        }
+
+        StringBuilder call = new StringBuilder();
+        if (method.getModifiers().contains(Modifier.STATIC)) call.append(holderType);
+        else call.append("holder");
+        call.append('.').append(method.getSimpleName()).append('(');
+        for (int p = 0; p < parameters.size(); p++) {
+            if (p > 0) call.append(", ");
+            call.append('p').append(p);
+        }
+        call.append(')');
+
+        // same exception (and cause) as when invoking the method using reflection
+        out.append("            try {\n");
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            out.append("                ").append(call).append(";\n");
+            out.append("                return null;\n");
+        } else {
+            out.append("                return ").append(call).append(";\n");
+        }
+        out.append("            } catch (Throwable e) {\n");
+        out.append("                throw new ").append(PACKAGE).append("CommandSetupException(\"Failed to invoke method for command execution!\\nMethod:\" + ")
+                .append(signature).append(", new java.lang.reflect.InvocationTargetException(e));\n");
+        out.append("            }\n");
+        out.append("        }\n\n");
+
+        // priority
+        Priority priority = method.getAnnotation(Priority.class);
+        if (priority != null) {
+            out.append("        @Override\n");
+            out.append("        public int getPriority() {\n");
+            out.append("            return ").append(priority.value()).append(";\n");
+            out.append("        }\n\n");
+        }
+
+        // validation
+        out.append("        @Override\n");
+        out.append("        public boolean isValid(C context) {\n");
+        out.append("            return blueCommands.checkContext(context, Executable").append(m).append(".class, ANNOTATIONS);\n");
+        out.append("        }\n\n");
+
+        out.append("        @Override\n");
+        out.append("        public boolean isValid(C context, java.util.Map<Object, Object> sharedState) {\n");
+        out.append("            return blueCommands.checkContext(context, Executable").append(m).append(".class, ANNOTATIONS, sharedState);\n");
+        out.append("        }\n\n");
+
+        out.append("    }\n");
+    }
+
+    /**
+     * Writes an implementation of the annotation-type that is equal to the annotation-instances created by the jvm.
+     */
+    private void writeAnnotationClass(StringBuilder out, TypeElement annotationType, int index) {
+        String typeName = typeName(annotationType.asType());
+        String className = "Annotation" + index;
+        List<ExecutableElement> annotationElements = ElementFilter.methodsIn(annotationType.getEnclosedElements());
+
+        out.append("    private static final class ").append(className).append(" implements ").append(typeName).append(" {\n\n");
+        for (ExecutableElement element : annotationElements) {
+            out.append("        private final ").append(element.getReturnType()).append(' ').append(element.getSimpleName()).append(";\n");
+        }
+
+        out.append("\n        private ").append(className).append('(');
+        for (int e = 0; e < annotationElements.size(); e++) {
+            ExecutableElement element = annotationElements.get(e);
+            if (e > 0) out.append(", ");
+            out.append(element.getReturnType()).append(' ').append(element.getSimpleName());
+        }
+        out.append(") {\n");
+        for (ExecutableElement element : annotationElements) {
+            out.append("            this.").append(element.getSimpleName()).append(" = ").append(element.getSimpleName()).append(";\n");
+        }
+        out.append("        }\n\n");
+
+        for (ExecutableElement element : annotationElements) {
+            boolean array = element.getReturnType().getKind() == TypeKind.ARRAY;
+            out.append("        @Override\n");
+            out.append("        public ").append(element.getReturnType()).append(' ').append(element.getSimpleName()).append("() {\n");
+            out.append("            return this.").append(element.getSimpleName()).append(array ? ".clone()" : "").append(";\n");
+            out.append("        }\n\n");
+        }
+
+        out.append("        @Override\n");
+        out.append("        public Class<? extends java.lang.annotation.Annotation> annotationType() {\n");
+        out.append("            return ").append(typeName).append(".class;\n");
+        out.append("        }\n\n");
+
+        // equals, hashCode and toString as specified by java.lang.annotation.Annotation
+        out.append("        @Override\n");
+        out.append("        public boolean equals(Object obj) {\n");
+        out.append("            if (obj == this) return true;\n");
+        out.append("            if (!(obj instanceof ").append(typeName).append(")) return false;\n");
+        out.append("            ").append(typeName).append(" that = (").append(typeName).append(") obj;\n");
+        out.append("            return ");
+        if (annotationElements.isEmpty()) out.append("true");
+        for (int e = 0; e < annotationElements.size(); e++) {
+            String name = annotationElements.get(e).getSimpleName().toString();
+            TypeMirror type = annotationElements.get(e).getReturnType();
+            if (e > 0) out.append(" &&\n                    ");
+            if (type.getKind() == TypeKind.ARRAY) {
+                out.append("java.util.Arrays.equals(this.").append(name).append(", that.").append(name).append("())");
+            } else if (type.getKind() == TypeKind.FLOAT || type.getKind() == TypeKind.DOUBLE) {
+                out.append(boxedTypeName(type)).append(".compare(this.").append(name).append(", that.").append(name).append("()) == 0");
+            } else if (type.getKind().isPrimitive()) {
+                out.append("this.").append(name).append(" == that.").append(name).append("()");
+            } else {
+                out.append("this.").append(name).append(".equals(that.").append(name).append("())");
+            }
+        }
+        out.append(";\n");
+        out.append("        }\n\n");
+
+        out.append("        @Override\n");
+        out.append("        public int hashCode() {\n");
+        out.append("            return ");
+        if (annotationElements.isEmpty()) out.append("0");
+        for (int e = 0; e < annotationElements.size(); e++) {
+            String name = annotationElements.get(e).getSimpleName().toString();
+            TypeMirror type = annotationElements.get(e).getReturnType();
+            if (e > 0) out.append(" +\n                    ");
+            out.append("((127 * ").append(name.hashCode()).append(") ^ ");
+            if (type.getKind() == TypeKind.ARRAY) {
+                out.append("java.util.Arrays.hashCode(this.").append(name).append("))");
+            } else if (type.getKind().isPrimitive()) {
+                out.append(boxedTypeName(type)).append(".hashCode(this.").append(name).append("))");
+            } else {
+                out.append("this.").append(name).append(".hashCode())");
+            }
+        }
+        out.append(";\n");
+        out.append("        }\n\n");
+
+        out.append("        @Override\n");
+        out.append("        public String toString() {\n");
+        out.append("            return \"@").append(typeName).append("(\"");
+        for (int e = 0; e < annotationElements.size(); e++) {
+            ExecutableElement element = annotationElements.get(e);
+            String name = element.getSimpleName().toString();
+            out.append(" +\n                    \"").append(e > 0 ? ", " : "").append(name).append("=\" + ");
+            if (element.getReturnType().getKind() == TypeKind.ARRAY) {
+                out.append("java.util.Arrays.toString(this.").append(name).append(')');
+            } else {
+                out.append("this.").append(name);
+            }
+        }
+        out.append(" + \")\";\n");
+        out.append("        }\n\n");
+
+        out.append("    }\n");
+    }
+
+    private String annotationExpression(AnnotationMirror annotation) {
+        TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+        Integer index = annotationClasses.get(annotationType);
+        if (index == null) {
+            index = annotationClasses.size();
+            annotationClasses.put(annotationType, index);
+        }
+
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = elements.getElementValuesWithDefaults(annotation);
+        StringBuilder expression = new StringBuilder("new Annotation").append(index).append('(');
+        boolean first = true;
+        for (ExecutableElement element : ElementFilter.methodsIn(annotationType.getEnclosedElements())) {
+            if (!first) expression.append(", ");
+            first = false;
+            expression.append(valueExpression(values.get(element), element.getReturnType()));
+        }
+        return expression.append(')').toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private String valueExpression(AnnotationValue annotationValue, TypeMirror type) {
+        Object value = annotationValue.getValue();
+        if (value instanceof String) return stringLiteral((String) value);
+        if (value instanceof Boolean || value instanceof Integer) return value.toString();
+        if (value instanceof Long) return value + "L";
+        if (value instanceof Byte) return "(byte) " + value;
+        if (value instanceof Short) return "(short) " + value;
+        if (value instanceof Character) return charLiteral((Character) value);
+        if (value instanceof Float) return floatLiteral((Float) value);
+        if (value instanceof Double) return doubleLiteral((Double) value);
+        if (value instanceof TypeMirror) return typeName((TypeMirror) value) + ".class";
+        if (value instanceof VariableElement) {
+            VariableElement constant = (VariableElement) value;
+            return typeName(constant.getEnclosingElement().asType()) + "." + constant.getSimpleName();
+        }
+        if (value instanceof AnnotationMirror) return annotationExpression((AnnotationMirror) value);
+
+        TypeMirror componentType = ((ArrayType) type).getComponentType();
+        StringBuilder expression = new StringBuilder("new ").append(typeName(componentType)).append("[]{");
+        boolean first = true;
+        for (AnnotationValue component : (List<? extends AnnotationValue>) value) {
+            if (!first) expression.append(", ");
+            first = false;
+            expression.append(valueExpression(component, componentType));
+        }
+        return expression.append('}').toString();
+    }
+
+    /**
+     * Returns the annotations of the element that are visible at runtime, the same as
+     * {@link java.lang.reflect.AnnotatedElement#getAnnotations()}.
+     */
+    private List<AnnotationMirror> getRuntimeAnnotations(Element element) {
+        List<AnnotationMirror> annotations = new ArrayList<>();
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            java.lang.annotation.Retention retention = annotation.getAnnotationType().asElement()
+                    .getAnnotation(java.lang.annotation.Retention.class);
+            if (retention != null && retention.value() == java.lang.annotation.RetentionPolicy.RUNTIME)
+                annotations.add(annotation);
+        }
+        return annotations;
+    }
+
+    /**
+     * Collects the types that the generated code references to create the given annotation.
+     */
+    private void collectReferencedTypes(AnnotationMirror annotation, Set<TypeElement> types) {
+        types.add((TypeElement) annotation.getAnnotationType().asElement());
+        for (AnnotationValue value : elements.getElementValuesWithDefaults(annotation).values())
+            collectReferencedTypes(value.getValue(), types);
+    }
+
+    private void collectReferencedTypes(Object value, Set<TypeElement> types) {
+        if (value instanceof AnnotationMirror) {
+            collectReferencedTypes((AnnotationMirror) value, types);
+        } else if (value instanceof VariableElement) {
+            types.add((TypeElement) ((VariableElement) value).getEnclosingElement());
+        } else if (value instanceof TypeMirror) {
+            TypeMirror type = (TypeMirror) value;
+            while (type.getKind() == TypeKind.ARRAY) type = ((ArrayType) type).getComponentType();
+            if (type.getKind() == TypeKind.DECLARED) types.add((TypeElement) ((DeclaredType) type).asElement());
+        } else if (value instanceof List) {
+            for (Object component : (List<?>) value)
+                collectReferencedTypes(((AnnotationValue) component).getValue(), types);
+        }
+    }
+
+    private boolean isAccessible(TypeElement type) {
+        boolean samePackage = elements.getPackageOf(type).getQualifiedName().contentEquals(packageName);
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) return false;
+            if (!samePackage && !modifiers.contains(Modifier.PUBLIC)) return false;
+        }
+        return true;
+    }
+
+    private String argumentParserExpression(VariableElement parameter, String argumentId) {
+        String expression;
+
+        Parser parser = parameter.getAnnotation(Parser.class);
+        TypeMirror parserType = getParserType(parameter);
+        if (parser != null) {
+            expression = "blueCommands.getArgumentParser(" + stringLiteral(parser.value()) + ")";
+        } else if (parserType != null) {
+            String type = typeName(parserType);
+            expression = "blueCommands.getArgumentParser((Class) " + type + ".class, (java.util.function.Supplier) " + type + "::new)";
+        } else {
+            expression = "blueCommands.getParserByArgumentType(" + typeName(parameter.asType()) + ".class)";
+        }
+
+        expression = "blueCommands.requireArgumentParser(" + expression + ", " + stringLiteral(argumentId) + ")";
+
+        Pattern pattern = parameter.getAnnotation(Pattern.class);
+        if (pattern != null)
+            expression = "blueCommands.applyPattern(" + expression + ", " + stringLiteral(pattern.value()) + ")";
+
+        Range range = parameter.getAnnotation(Range.class);
+        if (range != null)
+            expression = "blueCommands.applyRange(" + expression + ", " + doubleLiteral(range.min()) + ", " + doubleLiteral(range.max()) + ")";
+
+        return expression;
+    }
+
+    /**
+     * Reads the value of a {@link ParserType}-annotation, which can not be read as a class at compile-time.
+     */
+    private TypeMirror getParserType(VariableElement parameter) {
+        for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(ParserType.class.getCanonicalName())) continue;
+
+            for (var value : annotation.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("value"))
+                    return (TypeMirror) value.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private VariableElement findArgumentParameter(ExecutableElement method, String argumentId) {
+        for (VariableElement parameter : method.getParameters()) {
+            Argument argument = parameter.getAnnotation(Argument.class);
+            if (argument != null && argument.value().equals(argumentId)) return parameter;
+        }
+        return null;
+    }
+
+    private String methodSignature(ExecutableElement method) {
+        StringBuilder signature = new StringBuilder(typeName(holder.asType()))
+                .append('.').append(method.getSimpleName()).append('(');
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int p = 0; p < parameters.size(); p++) {
+            if (p > 0) signature.append(',');
+            signature.append(typeName(parameters.get(p).asType()));
+        }
+        return signature.append(')').toString();
+    }
+
+    private String typeName(TypeMirror type) {
+        return types.erasure(type).toString();
+    }
+
+    private String boxedTypeName(TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return types.boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName().toString();
+        return typeName(type);
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static List<String> tokenize(String description) {
+        if (description.isBlank()) return Collections.emptyList();
+        return Arrays.asList(description.trim().split(" +"));
+    }
+
+    private static Token parseToken(String token) {
+        Matcher matcher = ARGUMENT_PATTERN.matcher(token);
+        if (matcher.matches()) return new Token(null, matcher.group(1), false);
+
+        matcher = OPTIONAL_ARGUMENT_PATTERN.matcher(token);
+        if (matcher.matches()) return new Token(null, matcher.group(1), true);
+
+        return new Token(token, null, false);
+    }
+
+    private static String stringLiteral(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': literal.append("\\\""); break;
+                case '\\': literal.append("\\\\"); break;
+                case '\n': literal.append("\\n"); break;
+                case '\r': literal.append("\\r"); break;
+                case '\t': literal.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) literal.append(String.format("\\u%04x", (int) c));
+                    else literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private static String charLiteral(char value) {
+        if (value == '\'') return "'\\''";
+        if (value == '"') return "'\"'";
+        String literal = stringLiteral(String.valueOf(value));
+        return "'" + literal.substring(1, literal.length() - 1) + "'";
+    }
+
+    private static String floatLiteral(float value) {
+        if (value == Float.POSITIVE_INFINITY) return "Float.POSITIVE_INFINITY";
+        if (value == Float.NEGATIVE_INFINITY) return "Float.NEGATIVE_INFINITY";
+        if (Float.isNaN(value)) return "Float.NaN";
+        return value + "f";
+    }
+
+    private static String doubleLiteral(double value) {
+        if (value == Double.POSITIVE_INFINITY) return "Double.POSITIVE_INFINITY";
+        if (value == Double.NEGATIVE_INFINITY) return "Double.NEGATIVE_INFINITY";
+        if (Double.isNaN(value)) return "Double.NaN";
+        return Double.toString(value);
+    }
+
+    private static final class Token {
+
+        private final String literal;
+        private final String argumentId;
+        private final boolean optional;
+
+        private Token(String literal, String argumentId, boolean optional) {
+            this.literal = literal;
+            this.argumentId = argumentId;
+            this.optional = optional;
+        }
+
+    }
+
+}
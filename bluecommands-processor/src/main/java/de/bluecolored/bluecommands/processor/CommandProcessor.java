@@ -0,0 +1,116 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.processor;
+
+import de.bluecolored.bluecommands.BlueCommands;
+import de.bluecolored.bluecommands.CommandFactory;
+import de.bluecolored.bluecommands.annotations.Command;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Generates a {@link CommandFactory} for each class with {@link Command}-annotated methods,
+ * and registers all generated factories as services so {@link BlueCommands#createCommand(Object)} can find them.
+ */
+@SupportedAnnotationTypes("de.bluecolored.bluecommands.annotations.Command")
+public class CommandProcessor extends AbstractProcessor {
+
+    private final Set<String> processedHolders = new HashSet<>();
+    private final List<String> generatedFactories = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+
+        // the holders are the classes with command-methods, the annotation on a class itself only adds a prefix
+        Set<TypeElement> holders = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Command.class)) {
+            if (element.getKind() == ElementKind.METHOD) {
+                holders.add((TypeElement) element.getEnclosingElement());
+            } else if (element instanceof TypeElement) {
+                holders.add((TypeElement) element);
+            }
+        }
+
+        for (TypeElement holder : holders) {
+            if (!processedHolders.add(holder.getQualifiedName().toString())) continue;
+
+            CommandFactoryWriter writer = new CommandFactoryWriter(processingEnv, holder);
+            if (!writer.validate()) continue;
+
+            try {
+                JavaFileObject file = processingEnv.getFiler().createSourceFile(writer.getFactoryName(), holder);
+                try (Writer out = file.openWriter()) {
+                    out.write(writer.write());
+                }
+                generatedFactories.add(writer.getFactoryName());
+            } catch (IOException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write command-factory: " + ex, holder);
+            }
+        }
+
+        return false;
+    }
+
+    private void writeServiceFile() {
+        if (generatedFactories.isEmpty()) return;
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(
+                    StandardLocation.CLASS_OUTPUT,
+                    "",
+                    "META-INF/services/" + CommandFactory.class.getName()
+            );
+            try (Writer out = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String factory : generatedFactories) {
+                    out.write(factory);
+                    out.write('\n');
+                }
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write command-factory services: " + ex);
+        }
+    }
+
+}
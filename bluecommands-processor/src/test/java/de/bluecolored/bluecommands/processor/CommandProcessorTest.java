@@ -0,0 +1,216 @@
+/*
+ * This file is part of BlueCommands, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Blue (Lukas Rieger) <https://bluecolored.de>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.bluecolored.bluecommands.processor;
+
+import de.bluecolored.bluecommands.BlueCommands;
+import de.bluecolored.bluecommands.MethodCommandExecutable;
+import de.bluecolored.bluecommands.annotations.Priority;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandProcessorTest {
+
+    private static final String HOLDER_SOURCE = String.join("\n",
+            "package test;",
+            "",
+            "import de.bluecolored.bluecommands.annotations.*;",
+            "",
+            "@Command(\"holder\")",
+            "public class Holder {",
+            "",
+            "    public String last;",
+            "",
+            "    @Command(\"add <a> [b]\")",
+            "    public int add(@Argument(\"a\") int a, @Argument(\"b\") Integer b) {",
+            "        return a + (b != null ? b : 0);",
+            "    }",
+            "",
+            "    @Command({\"say <text>\", \"echo <text>\"})",
+            "    @Priority(5)",
+            "    public void say(Object context, @Argument(\"text\") @Pattern(\"[a-z]+\") String text) throws Exception {",
+            "        last = text;",
+            "    }",
+            "",
+            "    @Command(\"static\")",
+            "    @Permission(\"admin\")",
+            "    public static String staticCommand() {",
+            "        return \"static\";",
+            "    }",
+            "",
+            "    @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)",
+            "    public @interface Permission {",
+            "        String value();",
+            "        int level() default -1;",
+            "        char separator() default '\\'';",
+            "        double weight() default Double.NaN;",
+            "        Class<?>[] types() default { String.class, int[].class };",
+            "        java.lang.annotation.ElementType target() default java.lang.annotation.ElementType.METHOD;",
+            "        Priority priority() default @Priority(3);",
+            "    }",
+            "",
+            "    public static class Inner {",
+            "        @Command(\"inner\")",
+            "        public String inner() {",
+            "            return \"inner\";",
+            "        }",
+            "    }",
+            "",
+            "    @Command(\"prefixed <name>\")",
+            "    public static class Prefixed {",
+            "        @Command(\"greet\")",
+            "        public String greet(@Argument(\"name\") String name) {",
+            "            return \"hello \" + name;",
+            "        }",
+            "    }",
+            "",
+            "}"
+    );
+
+    @Test
+    public void testGeneratedFactory(@TempDir Path output) throws Exception {
+        compile(output, "test.Holder", HOLDER_SOURCE);
+        assertTrue(Files.exists(output.resolve("test/Holder_CommandFactory.class")));
+        assertTrue(Files.exists(output.resolve("test/Holder_Inner_CommandFactory.class")));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new java.net.URL[]{ output.toUri().toURL() }, getClass().getClassLoader())) {
+            Class<?> holderClass = classLoader.loadClass("test.Holder");
+            Object holder = holderClass.getConstructor().newInstance();
+
+            BlueCommands<Object> blueCommands = new BlueCommands<>();
+            var commands = blueCommands.createCommand(holder);
+
+            var result = commands.parse("context", "holder add 1 2");
+            assertEquals(1, result.getMatches().size());
+            var match = result.getMatches().iterator().next();
+            assertFalse(match.getExecutable() instanceof MethodCommandExecutable);
+            assertEquals(3, match.execute());
+
+            result = commands.parse("context", "holder add 4");
+            assertEquals(Map.of("a", 4), result.getMatches().iterator().next().getArguments());
+            assertEquals(4, result.getMatches().iterator().next().execute());
+
+            result = commands.parse("context", "holder echo hello");
+            assertEquals(1, result.getMatches().size());
+            match = result.getMatches().iterator().next();
+            assertEquals(5, match.getPriority());
+            assertNull(match.execute());
+            assertEquals("hello", holderClass.getField("last").get(holder));
+
+            assertTrue(commands.parse("context", "holder say HELLO").getMatches().isEmpty());
+            assertEquals("static", commands.parse("context", "holder static").getMatches().iterator().next().execute());
+
+            // annotation-predicates see the annotations of the method, the same as for the reflective executables
+            blueCommands.setAnnotationContextPredicate(Priority.class, (priority, context) -> priority != null || !"restricted".equals(context));
+            assertEquals(1, commands.parse("restricted", "holder echo hello").getMatches().size());
+            assertTrue(commands.parse("restricted", "holder static").getMatches().isEmpty());
+
+            // the annotations of the generated executables are equal to the ones created by the jvm
+            Class<? extends Annotation> permissionType = classLoader.loadClass("test.Holder$Permission").asSubclass(Annotation.class);
+            Annotation expected = holderClass.getMethod("staticCommand").getAnnotation(permissionType);
+            List<Annotation> seen = new ArrayList<>();
+            blueCommands.setAnnotationContextPredicate(permissionType, (permission, context) -> {
+                if (permission != null) seen.add(permission);
+                return true;
+            });
+            assertEquals(1, commands.parse("admin", "holder static").getMatches().size());
+            assertFalse(seen.isEmpty());
+            assertEquals(expected, seen.get(0));
+            assertEquals(seen.get(0), expected);
+            assertEquals(expected.hashCode(), seen.get(0).hashCode());
+
+            Object inner = classLoader.loadClass("test.Holder$Inner").getConstructor().newInstance();
+            var innerCommands = blueCommands.createCommand(inner);
+            assertEquals("inner", innerCommands.parse(null, "inner").getMatches().iterator().next().execute());
+
+            Object prefixed = classLoader.loadClass("test.Holder$Prefixed").getConstructor().newInstance();
+            var prefixedCommands = blueCommands.createCommand(prefixed);
+            match = prefixedCommands.parse(null, "prefixed world greet").getMatches().iterator().next();
+            assertFalse(match.getExecutable() instanceof MethodCommandExecutable);
+            assertEquals("hello world", match.execute());
+        }
+    }
+
+    @Test
+    public void testMissingArgument(@TempDir Path output) throws Exception {
+        String source = String.join("\n",
+                "package test;",
+                "public class Broken {",
+                "    @de.bluecolored.bluecommands.annotations.Command(\"broken <missing>\")",
+                "    public void broken() {}",
+                "}"
+        );
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        assertFalse(runCompiler(output, diagnostics, "test.Broken", source));
+        assertTrue(diagnostics.getDiagnostics().stream()
+                .anyMatch(diagnostic -> diagnostic.getMessage(null).contains("Argument 'missing' is missing")));
+    }
+
+    private void compile(Path output, String className, String source) throws IOException {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean success = runCompiler(output, diagnostics, className, source);
+        assertTrue(success, diagnostics.getDiagnostics().toString());
+    }
+
+    private boolean runCompiler(Path output, DiagnosticCollector<JavaFileObject> diagnostics, String className, String source) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaFileObject sourceFile = new SimpleJavaFileObject(
+                URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE
+        ) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    List.of("-d", output.toString(), "-classpath", System.getProperty("java.class.path")),
+                    null,
+                    List.of(sourceFile)
+            );
+            task.setProcessors(List.of(new CommandProcessor()));
+            return task.call();
+        }
+    }
+
+}
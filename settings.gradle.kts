@@ -10,4 +10,6 @@ rootProject.name = "BlueCommands"
 
 include("bluecommands-core")
 include("bluecommands-brigadier")
+include("bluecommands-processor")
+include("bluecommands-jmh")
 //include("fabric-test-mod")